@@ -0,0 +1,114 @@
+package benchmark;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import outil.MoteurAnalyse;
+import outil.ResultatFichier;
+import outil.ResultatFonction;
+
+/**
+ * La classe ControleAnalyse verifie le resultat de l'analyse sur des exemples de signatures difficiles (signature
+ * sur plusieurs lignes au style black, parenthese jamais fermee, signature demesuree). Elle se lance apres la
+ * construction des bancs d'essai, pour s'assurer qu'une optimisation n'a pas change les resultats :
+ * java -cp target/benchmarks.jar benchmark.ControleAnalyse
+ *
+ *
+ * @author CHEBALLAH Jawed
+ * @author FWALA Yvon
+ */
+public final class ControleAnalyse {
+    private final MoteurAnalyse moteur = new MoteurAnalyse();
+    private final List<String> echecs = new ArrayList<>();
+
+    private ControleAnalyse() {
+    }
+
+    /**
+     * Lance tous les controles ; le code de sortie vaut 1 si l'un d'eux echoue.
+     *
+     * @param args Non utilises.
+     */
+    public static void main(String[] args) {
+        ControleAnalyse controle = new ControleAnalyse();
+        controle.signatureBlack();
+        controle.signatureBlackDansUneClasse();
+        controle.parentheseNonFermee();
+        controle.signatureDemesuree();
+
+        if (controle.echecs.isEmpty()) {
+            System.out.println("Tous les controles sont passes.");
+        } else {
+            controle.echecs.forEach(System.out::println);
+            System.exit(1);
+        }
+    }
+
+    // La parenthèse fermante est à la colonne du def : la signature continue jusqu'au deux-points
+    private void signatureBlack() {
+        ResultatFichier resultat = analyser("def f(\n"
+                + "    a: int,\n"
+                + "    b: int,\n"
+                + ") -> int:\n"
+                + "    \"\"\"Doc.\"\"\"\n"
+                + "    return a + b\n");
+        verifierFonction("black", resultat, 0, "f", 1, 6, true, "int", 2);
+    }
+
+    private void signatureBlackDansUneClasse() {
+        ResultatFichier resultat = analyser("class C:\n"
+                + "    def m(\n"
+                + "        self,\n"
+                + "        x: str,\n"
+                + "    ) -> None:\n"
+                + "        \"\"\"Doc.\"\"\"\n"
+                + "        pass\n");
+        verifierFonction("black dans une classe", resultat, 0, "m", 2, 7, true, "None", 2);
+    }
+
+    // La fonction suivante est retrouvée malgré la parenthèse jamais fermée
+    private void parentheseNonFermee() {
+        ResultatFichier resultat = analyser("def f(a, b:\n"
+                + "    int\n"
+                + "\n"
+                + "def g(x: int) -> int:\n"
+                + "    \"\"\"Doc.\"\"\"\n"
+                + "    return x\n");
+        verifier("parenthese non fermee : nombre de fonctions", 2, resultat.getNbFonctions());
+        verifierFonction("parenthese non fermee", resultat, 1, "g", 4, 6, true, "int", 1);
+    }
+
+    private void signatureDemesuree() {
+        ResultatFichier resultat = analyser("def f(a: " + "x".repeat(200_000) + "\n"
+                + "def g(y: int):\n"
+                + "    pass\n");
+        verifier("signature demesuree : nombre de fonctions", 2, resultat.getNbFonctions());
+        verifierFonction("signature demesuree", resultat, 1, "g", 2, 3, false, null, 1);
+    }
+
+    private ResultatFichier analyser(String source) {
+        return moteur.analyser("exemple.py", "exemple.py", source.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private void verifierFonction(String cas, ResultatFichier resultat, int indice, String nom, int ligne, int ligneFin,
+            boolean pydoc, String retour, int nbParametres) {
+        if (resultat.getFonctions().size() <= indice) {
+            echecs.add(cas + " : fonction " + nom + " absente");
+            return;
+        }
+        ResultatFonction fonction = resultat.getFonctions().get(indice);
+        verifier(cas + " : nom", nom, fonction.getNom());
+        verifier(cas + " : premiere ligne", ligne, fonction.getLigne());
+        verifier(cas + " : derniere ligne", ligneFin, fonction.getLigneFin());
+        verifier(cas + " : docstring", pydoc, fonction.hasPydoc());
+        verifier(cas + " : annotation de retour", retour, fonction.getAnnotationRetour());
+        verifier(cas + " : nombre de parametres", nbParametres, fonction.getParametres().size());
+    }
+
+    private void verifier(String cas, Object attendu, Object obtenu) {
+        if (attendu == null ? obtenu != null : !attendu.equals(obtenu)) {
+            echecs.add(cas + " : attendu " + attendu + ", obtenu " + obtenu);
+        }
+    }
+}
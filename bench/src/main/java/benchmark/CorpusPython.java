@@ -0,0 +1,165 @@
+package benchmark;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * La classe CorpusPython genere, dans un dossier temporaire, un corpus de fichiers Python reproductible pour les
+ * bancs d'essai. Trois formes sont disponibles :
+ * "petits" (beaucoup de petits fichiers), "gros" (quelques fichiers de plusieurs Mo) et "profond" (arborescence
+ * tres imbriquee). L'echelle multiplie le nombre de fichiers ou leur taille.
+ *
+ *
+ * @author CHEBALLAH Jawed
+ * @author FWALA Yvon
+ */
+public final class CorpusPython {
+    private static final long GRAINE = 20240611L;
+
+    private CorpusPython() {
+    }
+
+    /**
+     * Genere un corpus.
+     *
+     * @param forme   La forme du corpus : "petits", "gros" ou "profond".
+     * @param echelle Le facteur multiplicatif du corpus.
+     * @return Le dossier racine du corpus.
+     * @throws IOException Si une exception d'entree/sortie se produit.
+     */
+    public static Path generer(String forme, int echelle) throws IOException {
+        Path racine = Files.createTempDirectory("japybeautify-" + forme + "-");
+        Random aleatoire = new Random(GRAINE);
+
+        switch (forme) {
+            case "petits":
+                for (int d = 0; d < 20 * echelle; d++) {
+                    Path dossier = Files.createDirectories(racine.resolve("paquet" + d));
+                    for (int f = 0; f < 50; f++) {
+                        ecrireFichier(dossier.resolve("module" + f + ".py"), 5 + aleatoire.nextInt(30), aleatoire);
+                    }
+                }
+                break;
+            case "gros":
+                for (int f = 0; f < 4; f++) {
+                    ecrireFichier(racine.resolve("genere" + f + "_pb2.py"), 40_000 * echelle, aleatoire);
+                }
+                break;
+            case "profond":
+                Path dossier = racine;
+                for (int niveau = 0; niveau < 15 * echelle; niveau++) {
+                    dossier = Files.createDirectories(dossier.resolve("niveau" + niveau));
+                    for (int f = 0; f < 10; f++) {
+                        ecrireFichier(dossier.resolve("module" + f + ".py"), 5 + aleatoire.nextInt(30), aleatoire);
+                    }
+                }
+                break;
+            default:
+                throw new IllegalArgumentException("Forme de corpus inconnue : " + forme);
+        }
+        return racine;
+    }
+
+    /**
+     * Liste les fichiers Python d'un corpus, dans un ordre stable.
+     *
+     * @param racine Le dossier racine du corpus.
+     * @return Les fichiers Python du corpus.
+     * @throws IOException Si une exception d'entree/sortie se produit.
+     */
+    public static List<Path> fichiers(Path racine) throws IOException {
+        try (Stream<Path> chemins = Files.walk(racine)) {
+            return chemins.filter(p -> p.toString().endsWith(".py")).sorted().collect(Collectors.toList());
+        }
+    }
+
+    /**
+     * Supprime un corpus et tout son contenu.
+     *
+     * @param racine Le dossier racine du corpus.
+     * @throws IOException Si une exception d'entree/sortie se produit.
+     */
+    public static void supprimer(Path racine) throws IOException {
+        Files.walkFileTree(racine, new SimpleFileVisitor<Path>() {
+            @Override
+            public FileVisitResult visitFile(Path fichier, BasicFileAttributes attributs) throws IOException {
+                Files.delete(fichier);
+                return FileVisitResult.CONTINUE;
+            }
+
+            @Override
+            public FileVisitResult postVisitDirectory(Path dossier, IOException e) throws IOException {
+                Files.delete(dossier);
+                return FileVisitResult.CONTINUE;
+            }
+        });
+    }
+
+    /**
+     * Copie le contenu de chaque fichier, pour restaurer un corpus modifie par les corrections.
+     *
+     * @param fichiers Les fichiers a sauvegarder.
+     * @return Le contenu de chaque fichier, dans le meme ordre.
+     * @throws IOException Si une exception d'entree/sortie se produit.
+     */
+    public static List<byte[]> sauvegarder(List<Path> fichiers) throws IOException {
+        List<byte[]> contenus = new ArrayList<>();
+        for (Path fichier : fichiers) {
+            contenus.add(Files.readAllBytes(fichier));
+        }
+        return contenus;
+    }
+
+    /**
+     * Restaure le contenu des fichiers sauvegardes.
+     *
+     * @param fichiers Les fichiers a restaurer.
+     * @param contenus Le contenu de chaque fichier, dans le meme ordre.
+     * @throws IOException Si une exception d'entree/sortie se produit.
+     */
+    public static void restaurer(List<Path> fichiers, List<byte[]> contenus) throws IOException {
+        for (int i = 0; i < fichiers.size(); i++) {
+            Files.write(fichiers.get(i), contenus.get(i));
+        }
+    }
+
+    // Écrit un module Python avec un mélange de fonctions documentées, annotées, de classes et de code
+    private static void ecrireFichier(Path fichier, int nbFonctions, Random aleatoire) throws IOException {
+        try (Writer sortie = Files.newBufferedWriter(fichier, StandardCharsets.UTF_8)) {
+            if (aleatoire.nextBoolean()) {
+                sortie.write("#!/usr/bin/env python\n# -*- coding: utf-8 -*-\n");
+            }
+            sortie.write("import os\nimport sys\n\n");
+
+            for (int i = 0; i < nbFonctions; i++) {
+                String indentation = "";
+                if (i % 10 == 0) {
+                    sortie.write("class Classe" + i + ":\n");
+                    indentation = "    ";
+                }
+                if (aleatoire.nextBoolean()) {
+                    sortie.write(indentation + "def fonction" + i + "(self, a: int, b: str = \"x\") -> int:\n");
+                } else {
+                    sortie.write(indentation + "def fonction" + i + "(a, b):\n");
+                }
+                if (aleatoire.nextInt(3) > 0) {
+                    sortie.write(indentation + "    \"\"\"\n" + indentation + "    Documentation de fonction" + i + ".\n"
+                            + indentation + "    \"\"\"\n");
+                }
+                sortie.write(indentation + "    valeur = a + " + i + "\n");
+                sortie.write(indentation + "    return valeur\n\n");
+            }
+        }
+    }
+}
@@ -0,0 +1,106 @@
+package benchmark;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import outil.AideCorrectionFichier;
+
+/**
+ * Bancs d'essai des corrections (AideCorrectionFichier). Les fichiers du corpus sont restaures avant chaque
+ * appel, hors mesure, pour que chaque correction travaille sur le fichier d'origine.
+ *
+ *
+ * @author CHEBALLAH Jawed
+ * @author FWALA Yvon
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class CorrectionBenchmark {
+    @Param({"petits", "gros", "profond"})
+    public String forme;
+
+    @Param({"1"})
+    public int echelle;
+
+    private Path racine;
+    private List<Path> fichiers;
+    private List<byte[]> contenus;
+    private final List<AideCorrectionFichier> aides = new ArrayList<>();
+    private PrintStream sortieStandard;
+
+    /**
+     * Genere le corpus et rend la sortie standard muette (ajouterCommentaire y ecrit son rapport).
+     *
+     * @throws IOException Si une exception d'entree/sortie se produit.
+     */
+    @Setup(Level.Trial)
+    public void preparer() throws IOException {
+        racine = CorpusPython.generer(forme, echelle);
+        fichiers = CorpusPython.fichiers(racine);
+        contenus = CorpusPython.sauvegarder(fichiers);
+        for (Path fichier : fichiers) {
+            aides.add(new AideCorrectionFichier(fichier.toString()));
+        }
+        sortieStandard = System.out;
+        System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+    }
+
+    /**
+     * Restaure les fichiers d'origine avant chaque appel.
+     *
+     * @throws IOException Si une exception d'entree/sortie se produit.
+     */
+    @Setup(Level.Invocation)
+    public void restaurer() throws IOException {
+        CorpusPython.restaurer(fichiers, contenus);
+    }
+
+    /**
+     * Supprime le corpus et retablit la sortie standard.
+     *
+     * @throws IOException Si une exception d'entree/sortie se produit.
+     */
+    @TearDown(Level.Trial)
+    public void nettoyer() throws IOException {
+        System.setOut(sortieStandard);
+        CorpusPython.supprimer(racine);
+    }
+
+    @Benchmark
+    public void ajouterShebang(Blackhole trou) {
+        for (AideCorrectionFichier aide : aides) {
+            trou.consume(aide.ajouterShebang());
+        }
+    }
+
+    @Benchmark
+    public void ajouterCommentaire(Blackhole trou) {
+        for (AideCorrectionFichier aide : aides) {
+            trou.consume(aide.ajouterCommentaire("BANC", "1.0"));
+        }
+    }
+}
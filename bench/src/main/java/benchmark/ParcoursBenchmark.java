@@ -0,0 +1,90 @@
+package benchmark;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import outil.CumulStatistique;
+import outil.ParcoursArborescence;
+import outil.SortieStatistique;
+import outil.SortieTexte;
+import outil.Statistique;
+
+/**
+ * Bancs d'essai des parcours complets d'une arborescence, comme l'option -d (avec et sans --stat), et de
+ * Statistique.statRepertoire.
+ *
+ *
+ * @author CHEBALLAH Jawed
+ * @author FWALA Yvon
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ParcoursBenchmark {
+    @Param({"petits", "gros", "profond"})
+    public String forme;
+
+    @Param({"1", "4"})
+    public int echelle;
+
+    @Param({"1", "4"})
+    public int threads;
+
+    private Path racine;
+
+    /**
+     * Genere le corpus une fois pour toutes les mesures.
+     *
+     * @throws IOException Si une exception d'entree/sortie se produit.
+     */
+    @Setup(Level.Trial)
+    public void preparer() throws IOException {
+        racine = CorpusPython.generer(forme, echelle);
+    }
+
+    /**
+     * Supprime le corpus.
+     *
+     * @throws IOException Si une exception d'entree/sortie se produit.
+     */
+    @TearDown(Level.Trial)
+    public void nettoyer() throws IOException {
+        CorpusPython.supprimer(racine);
+    }
+
+    @Benchmark
+    public void parcourirArborescence() throws IOException {
+        new ParcoursArborescence(threads).parcourir(racine.toFile(), new SortieTexte(Writer.nullWriter()));
+    }
+
+    @Benchmark
+    public CumulStatistique parcourirAvecStatistiques() throws IOException {
+        SortieStatistique stat = new SortieStatistique(new SortieTexte(Writer.nullWriter()));
+        new ParcoursArborescence(threads).parcourir(racine.toFile(), stat);
+        return stat.getCumul();
+    }
+
+    @Benchmark
+    public String statRepertoire() {
+        return new Statistique(racine.toString()).statRepertoire();
+    }
+}
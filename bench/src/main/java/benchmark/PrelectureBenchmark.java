@@ -0,0 +1,104 @@
+package benchmark;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import outil.FiltreIgnores;
+import outil.MoteurAnalyse;
+import outil.ParcoursArborescence;
+import outil.SortieTexte;
+
+/**
+ * Bancs d'essai du parcours d'une arborescence sur un systeme de fichiers lent (montage NFS ou SSHFS), simule en
+ * ajoutant une latence fixe a chaque lecture de fichier. Ils comparent la lecture dans les threads d'analyse
+ * (lectures = 0) et la prelecture par un groupe de threads dedies (option --prefetch).
+ *
+ *
+ * @author CHEBALLAH Jawed
+ * @author FWALA Yvon
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PrelectureBenchmark {
+    @Param({"2"})
+    public int latenceMs;
+
+    @Param({"0", "16", "256"})
+    public int lectures;
+
+    @Param({"4"})
+    public int threads;
+
+    private Path racine;
+
+    /**
+     * Genere le corpus une fois pour toutes les mesures.
+     *
+     * @throws IOException Si une exception d'entree/sortie se produit.
+     */
+    @Setup(Level.Trial)
+    public void preparer() throws IOException {
+        racine = CorpusPython.generer("petits", 1);
+    }
+
+    /**
+     * Supprime le corpus.
+     *
+     * @throws IOException Si une exception d'entree/sortie se produit.
+     */
+    @TearDown(Level.Trial)
+    public void nettoyer() throws IOException {
+        CorpusPython.supprimer(racine);
+    }
+
+    @Benchmark
+    public void parcourirMontageLent() throws IOException {
+        MoteurAnalyse moteur = new MoteurLent(latenceMs);
+        new ParcoursArborescence(threads, lectures, moteur, FiltreIgnores.parDefaut())
+                .parcourir(racine.toFile(), new SortieTexte(Writer.nullWriter()));
+    }
+
+    /**
+     * Moteur d'analyse dont chaque lecture de fichier attend la latence d'un aller-retour reseau.
+     */
+    private static final class MoteurLent extends MoteurAnalyse {
+        private final long latenceMs;
+
+        MoteurLent(long latenceMs) {
+            super(null, null, true);
+            this.latenceMs = latenceMs;
+        }
+
+        @Override
+        protected byte[] lireOctets(File fichier) throws IOException {
+            try {
+                Thread.sleep(latenceMs);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IOException("Lecture interrompue.", e);
+            }
+            return super.lireOctets(fichier);
+        }
+    }
+}
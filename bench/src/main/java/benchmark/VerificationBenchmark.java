@@ -0,0 +1,110 @@
+package benchmark;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import outil.Analyseur;
+import outil.Verificateur;
+
+/**
+ * Bancs d'essai des verifications d'un fichier (Verificateur et Analyseur.compteurDeFonctions), appliquees a
+ * chaque fichier d'un corpus genere.
+ *
+ *
+ * @author CHEBALLAH Jawed
+ * @author FWALA Yvon
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class VerificationBenchmark {
+    @Param({"petits", "gros", "profond"})
+    public String forme;
+
+    @Param({"1", "4"})
+    public int echelle;
+
+    private Path racine;
+    private final List<Verificateur> verificateurs = new ArrayList<>();
+    private final List<Analyseur> analyseurs = new ArrayList<>();
+
+    /**
+     * Genere le corpus une fois pour toutes les mesures.
+     *
+     * @throws IOException Si une exception d'entree/sortie se produit.
+     */
+    @Setup(Level.Trial)
+    public void preparer() throws IOException {
+        racine = CorpusPython.generer(forme, echelle);
+        for (Path fichier : CorpusPython.fichiers(racine)) {
+            verificateurs.add(new Verificateur(fichier.toString()));
+            analyseurs.add(new Analyseur(fichier.toString()));
+        }
+    }
+
+    /**
+     * Supprime le corpus.
+     *
+     * @throws IOException Si une exception d'entree/sortie se produit.
+     */
+    @TearDown(Level.Trial)
+    public void nettoyer() throws IOException {
+        CorpusPython.supprimer(racine);
+    }
+
+    @Benchmark
+    public void verifierShebang(Blackhole trou) {
+        for (Verificateur verif : verificateurs) {
+            trou.consume(verif.verifierShebang());
+        }
+    }
+
+    @Benchmark
+    public void verifierPydoc(Blackhole trou) {
+        for (Verificateur verif : verificateurs) {
+            trou.consume(verif.verifierPydoc());
+        }
+    }
+
+    @Benchmark
+    public void verifierType(Blackhole trou) {
+        for (Verificateur verif : verificateurs) {
+            trou.consume(verif.verifierType());
+        }
+    }
+
+    @Benchmark
+    public void compteurDeFonctions(Blackhole trou) {
+        for (Analyseur analyseur : analyseurs) {
+            trou.consume(analyseur.compteurDeFonctions());
+        }
+    }
+
+    @Benchmark
+    public void analyserFichier(Blackhole trou) {
+        for (Analyseur analyseur : analyseurs) {
+            trou.consume(analyseur.analyserFichier());
+        }
+    }
+}
@@ -1,14 +1,24 @@
 package gui;
 
 import outil.Analyseur;
-import outil.Statistique;
 import outil.AideCorrectionFichier;
+import outil.CumulStatistique;
+import outil.LecturePython;
+import outil.MoteurAnalyse;
+import outil.ResultatFichier;
 import javax.swing.*;
 import javax.swing.filechooser.FileNameExtensionFilter;
 import java.awt.*;
 import java.awt.event.ActionEvent;
 import java.awt.event.ActionListener;
 import java.io.*;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 /**
  * Classe representant l'interface graphique de l'application.
@@ -36,8 +46,17 @@ public class GUI extends JFrame {
     protected JButton genererStats = new JButton("Generer Statistique");
     protected JButton verifierAnnotations = new JButton("Verifier Annotations");
     protected JButton help = new JButton("Help");
+    protected JProgressBar progression = new JProgressBar(0, 100);
+    protected JButton annuler = new JButton("Annuler");
     private Analyseur analyseur;
     private String path = "";
+    // Les analyses et corrections s'executent sur ce pool, jamais sur le thread de l'interface
+    private final ExecutorService executeur = Executors.newFixedThreadPool(Runtime.getRuntime().availableProcessors(), r -> {
+        Thread thread = new Thread(r, "analyse-gui");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private SwingWorker<?, ?> travailEnCours;
     
     /**
      * Constructeur de la classe GUI.
@@ -65,6 +84,11 @@ public class GUI extends JFrame {
         ajouterCommentaire.addActionListener(new AjouterCommentaireAction());
         genererStats.addActionListener(new GenererStatistiqueAction());
         help.addActionListener(new HelpAction());
+        annuler.addActionListener(e -> {
+            if (travailEnCours != null) {
+                travailEnCours.cancel(true);
+            }
+        });
     }
     /**
      * Initialise la mise en page de l'interface graphique.
@@ -87,8 +111,15 @@ public class GUI extends JFrame {
         textResultPanel.add(champs);
         textResultPanel.add(new JScrollPane(resultatArea));
 
+        JPanel etatPanel = new JPanel(new BorderLayout(5, 5));
+        progression.setStringPainted(true);
+        annuler.setEnabled(false);
+        etatPanel.add(progression, BorderLayout.CENTER);
+        etatPanel.add(annuler, BorderLayout.EAST);
+
         mainPanel.add(buttonPanel, BorderLayout.CENTER);
         mainPanel.add(textResultPanel, BorderLayout.NORTH);
+        mainPanel.add(etatPanel, BorderLayout.SOUTH);
 
         Container contentPane = getContentPane();
         contentPane.add(mainPanel);
@@ -156,9 +187,7 @@ public class GUI extends JFrame {
             if (!path.isEmpty()) {
                 File directory = new File(path);
                 if (directory.exists() && directory.isDirectory()) {
-                    analyseur = new Analyseur(path);
-                    String resultat = analyseur.analyserRepertoire();
-                    resultatArea.setText(resultat);
+                    lancer(new TravailAnalyse(directory, true));
                 } else {
                     resultatArea.setText("Le repertoire specifie n'existe pas.");
                 }
@@ -208,27 +237,28 @@ public class GUI extends JFrame {
                 File selectedFile = fileChooser.getSelectedFile();
                 String chemin = selectedFile.getAbsolutePath();
 
-                try (BufferedReader reader = new BufferedReader(new FileReader(chemin))) {
-                    // Lire le contenu du fichier
+                // La lecture et la correction du fichier s'executent en arriere-plan
+                lancer(new TravailCorrection(() -> {
                     StringBuilder fileContent = new StringBuilder();
-                    String line;
 
-                    // Lire ligne par ligne et stocker dans fileContent
-                    while ((line = reader.readLine()) != null) {
-                        fileContent.append(line).append("\n");
+                    try (BufferedReader reader = LecturePython.ouvrir(new File(chemin))) {
+                        String line;
+
+                        // Lire ligne par ligne et stocker dans fileContent
+                        while ((line = reader.readLine()) != null) {
+                            fileContent.append(line).append("\n");
+                        }
+                    } catch (IOException ex) {
+                        return "Erreur lors de la lecture du fichier : " + ex.getMessage();
                     }
 
                     // Ajouter le shebang si le fichier est vide ou ne commence pas par un shebang
                     if (fileContent.length() == 0 || !fileContent.toString().trim().startsWith("#!")) {
                         AideCorrectionFichier correcteur = new AideCorrectionFichier(chemin);
-                        String resultat = correcteur.ajouterShebang();
-                        resultatArea.setText(resultat);
-                    } else {
-                        resultatArea.setText("Le fichier a déjà un shebang.");
+                        return correcteur.ajouterShebang();
                     }
-                } catch (IOException ex) {
-                    resultatArea.setText("Erreur lors de la lecture du fichier : " + ex.getMessage());
-                }
+                    return "Le fichier a déjà un shebang.";
+                }));
             } else {
                 resultatArea.setText("Veuillez sélectionner un fichier.");
             }
@@ -253,31 +283,33 @@ public class GUI extends JFrame {
                 File selectedFile = fileChooser.getSelectedFile();
                 String chemin = selectedFile.getAbsolutePath();
 
-                // Lire le contenu du fichier pour verifier si le commentaire existe deja
-                try (BufferedReader br = new BufferedReader(new FileReader(chemin))) {
+                // Lire le contenu du fichier pour verifier si le commentaire existe deja, en arriere-plan
+                lancer(new TravailCorrection(() -> {
                     StringBuilder contenu = new StringBuilder();
-                    String line;
 
-                    while ((line = br.readLine()) != null) {
-                        contenu.append(line).append("\n");
+                    try (BufferedReader br = LecturePython.ouvrir(new File(chemin))) {
+                        String line;
+
+                        while ((line = br.readLine()) != null) {
+                            contenu.append(line).append("\n");
+                        }
+                    } catch (IOException exception) {
+                        return "Erreur lors de la lecture du fichier : " + exception.getMessage();
                     }
 
                     if (commentaireExisteDeja(contenu.toString())) {
-                        resultatArea.setText("Le commentaire existe deja dans le fichier.");
-                    } else {
-                        // Ajout du commentaire s'il n'existe pas deja
-                        AideCorrectionFichier aideCorrection = new AideCorrectionFichier(chemin);
-                        String resultat = aideCorrection.ajouterCommentaire("DEFAULT", "DEFAULT");
-
-                        if (resultat.equals("Commentaire ajoute avec succes.")) {
-                            resultatArea.setText(resultat);
-                        } else {
-                            resultatArea.setText("Erreur lors de l'ajout du commentaire : " + resultat);
-                        }
+                        return "Le commentaire existe deja dans le fichier.";
                     }
-                } catch (IOException exception) {
-                    resultatArea.setText("Erreur lors de la lecture du fichier : " + exception.getMessage());
-                }
+
+                    // Ajout du commentaire s'il n'existe pas deja
+                    AideCorrectionFichier aideCorrection = new AideCorrectionFichier(chemin);
+                    String resultat = aideCorrection.ajouterCommentaire("DEFAULT", "DEFAULT");
+
+                    if (resultat.equals("Commentaire ajoute avec succes.")) {
+                        return resultat;
+                    }
+                    return "Erreur lors de l'ajout du commentaire : " + resultat;
+                }));
             }
         }
     }
@@ -289,14 +321,163 @@ public class GUI extends JFrame {
         @Override
         public void actionPerformed(ActionEvent e) {
             if (!path.isEmpty()) {
-                Statistique statistiqueRepertoire = new Statistique(path);
-                String statistiquesRepertoire = statistiqueRepertoire.statRepertoire();
-                resultatArea.setText(statistiquesRepertoire);
+                lancer(new TravailAnalyse(new File(path), false));
             } else {
                 resultatArea.setText("Veuillez selectionner un repertoire.");
             }
         }
     }
+
+    /**
+     * Lance un travail en arriere-plan : la barre de progression suit son avancement et le bouton Annuler
+     * permet de l'interrompre. Un seul travail s'execute a la fois : le travail precedent est annule et ce qu'il
+     * publie encore (rapports, progression, message de fin) est ignore.
+     *
+     * @param travail Le travail a lancer.
+     */
+    private void lancer(SwingWorker<?, ?> travail) {
+        if (travailEnCours != null && !travailEnCours.isDone()) {
+            travailEnCours.cancel(true);
+        }
+        travailEnCours = travail;
+        progression.setValue(0);
+        annuler.setEnabled(true);
+        travail.addPropertyChangeListener(evt -> {
+            if (travail == travailEnCours && "progress".equals(evt.getPropertyName())) {
+                progression.setValue((Integer) evt.getNewValue());
+            }
+        });
+        travail.execute();
+    }
+
+    /**
+     * Remet la barre de progression et le bouton Annuler au repos a la fin d'un travail.
+     *
+     * @param travail Le travail termine.
+     */
+    private void terminer(SwingWorker<?, ?> travail) {
+        if (travail == travailEnCours) {
+            annuler.setEnabled(false);
+            progression.setIndeterminate(false);
+        }
+    }
+
+    /**
+     * Travail en arriere-plan qui analyse les fichiers Python d'un repertoire sur le pool de threads. Les rapports
+     * sont publies dans resultatArea, dans l'ordre des fichiers, des qu'ils sont prets ; les statistiques du
+     * repertoire sont cumulees au passage.
+     */
+    private class TravailAnalyse extends SwingWorker<CumulStatistique, String> {
+        private final File repertoire;
+        private final boolean afficherFichiers;
+
+        TravailAnalyse(File repertoire, boolean afficherFichiers) {
+            this.repertoire = repertoire;
+            this.afficherFichiers = afficherFichiers;
+            resultatArea.setText("");
+        }
+
+        @Override
+        protected CumulStatistique doInBackground() throws Exception {
+            CumulStatistique cumul = new CumulStatistique();
+            File[] fichiers = repertoire.listFiles((dir, nom) -> nom.endsWith(".py"));
+
+            if (fichiers == null || fichiers.length == 0) {
+                return cumul;
+            }
+
+            MoteurAnalyse moteur = new MoteurAnalyse();
+            List<Future<ResultatFichier>> analyses = new ArrayList<>();
+            for (File fichier : fichiers) {
+                analyses.add(executeur.submit(() -> moteur.analyser(fichier)));
+            }
+
+            try {
+                for (int i = 0; i < analyses.size() && !isCancelled(); i++) {
+                    ResultatFichier resultat = analyses.get(i).get();
+                    cumul.ajouter(resultat);
+                    if (afficherFichiers) {
+                        publish(resultat.rapportRepertoire());
+                    }
+                    setProgress(100 * (i + 1) / analyses.size());
+                }
+            } finally {
+                // En cas d'annulation, les analyses pas encore commencees ne sont pas executees
+                for (Future<ResultatFichier> analyse : analyses) {
+                    analyse.cancel(true);
+                }
+            }
+            return cumul;
+        }
+
+        @Override
+        protected void process(List<String> rapports) {
+            // Un travail remplacé par un autre n'écrit plus dans resultatArea
+            if (this != travailEnCours) {
+                return;
+            }
+            for (String rapport : rapports) {
+                resultatArea.append(rapport);
+            }
+        }
+
+        @Override
+        protected void done() {
+            terminer(this);
+            if (this != travailEnCours) {
+                return;
+            }
+            if (isCancelled()) {
+                resultatArea.append("\nAnalyse annulee.\n");
+                return;
+            }
+            try {
+                CumulStatistique cumul = get();
+                if (cumul.getNbTotalFichiers() == 0) {
+                    resultatArea.setText("\t Aucun fichier Python trouvé dans le répertoire " + repertoire + ".\n");
+                } else if (!afficherFichiers) {
+                    resultatArea.setText(cumul.rapport(repertoire));
+                }
+            } catch (InterruptedException | ExecutionException e) {
+                resultatArea.append("\nErreur lors de l'analyse : " + e.getMessage() + "\n");
+            }
+        }
+    }
+
+    /**
+     * Travail en arriere-plan qui execute une correction de fichier puis affiche son message dans resultatArea.
+     */
+    private class TravailCorrection extends SwingWorker<String, Void> {
+        private final Callable<String> correction;
+
+        TravailCorrection(Callable<String> correction) {
+            this.correction = correction;
+            progression.setIndeterminate(true);
+        }
+
+        @Override
+        protected String doInBackground() throws Exception {
+            return executeur.submit(correction).get();
+        }
+
+        @Override
+        protected void done() {
+            terminer(this);
+            if (this != travailEnCours) {
+                return;
+            }
+            if (isCancelled()) {
+                resultatArea.setText("Correction annulee.");
+                return;
+            }
+            try {
+                resultatArea.setText(get());
+            } catch (InterruptedException | ExecutionException e) {
+                resultatArea.setText("Erreur lors de la correction : " + e.getMessage());
+            }
+        }
+    }
+
     /**
      * Classe interne pour afficher l'aide du fonctionnement.
      */
@@ -0,0 +1,7 @@
+/**
+ * 
+ */
+module projectv3.gui {
+	requires java.desktop;
+	requires projectv3;
+}
\ No newline at end of file
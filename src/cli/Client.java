@@ -0,0 +1,85 @@
+package cli;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.StandardProtocolFamily;
+import java.net.UnixDomainSocketAddress;
+import java.nio.channels.Channels;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+import outil.ServeurAnalyse;
+
+/**
+ * Client leger du serveur d'analyse (option --daemon de Root). Il envoie une liste de fichiers ou de dossiers au
+ * serveur et recopie les rapports sur la sortie standard au fur et a mesure qu'ils arrivent. Il n'utilise que
+ * java.base et aucune classe d'analyse (seul le chemin de socket par defaut est lu dans ServeurAnalyse) : son
+ * demarrage est le plus court possible.
+ *
+ * <p>Utilisation : {@code java -cp Root.jar cli.Client [-s socket] [--format ndjson] [--arreter] chemin...}
+ *
+ * @author CHEBALLAH Jawed
+ * @author FWALA Yvon
+ */
+public class Client {
+
+    /**
+     * Constructeur par defaut de la classe Client.
+     */
+    public Client() {
+    }
+
+    /**
+     * Methode principale du client.
+     *
+     * @param args Les options puis les chemins a analyser.
+     */
+    public static void main(String[] args) {
+        Path socket = ServeurAnalyse.socketParDefaut();
+        String format = "texte";
+        boolean arreter = false;
+        StringBuilder requete = new StringBuilder();
+
+        for (int i = 0; i < args.length; i++) {
+            switch (args[i]) {
+                case "-s":
+                    socket = Paths.get(args[++i]);
+                    break;
+                case "--format":
+                    format = args[++i];
+                    break;
+                case "--arreter":
+                    arreter = true;
+                    break;
+                default:
+                    requete.append(args[i]).append('\n');
+                    break;
+            }
+        }
+
+        String commande = arreter ? "ARRETER\n" : "ANALYSER " + format + " " + new File("").getAbsolutePath() + "\n";
+
+        try (SocketChannel canal = SocketChannel.open(StandardProtocolFamily.UNIX)) {
+            canal.connect(UnixDomainSocketAddress.of(socket));
+            OutputStream envoi = Channels.newOutputStream(canal);
+            envoi.write((commande + (arreter ? "" : requete)).getBytes(StandardCharsets.UTF_8));
+            canal.shutdownOutput();
+
+            InputStream reponse = Channels.newInputStream(canal);
+            byte[] tampon = new byte[8192];
+            int lus;
+            while ((lus = reponse.read(tampon)) > 0) {
+                System.out.write(tampon, 0, lus);
+                System.out.flush();
+            }
+        } catch (IOException e) {
+            System.err.println("\t Erreur : serveur d'analyse injoignable sur " + socket + " (" + e.getMessage() + ").");
+            System.err.println("\t Démarrez-le avec : java -jar Root.jar --daemon");
+            System.exit(2);
+        }
+    }
+}
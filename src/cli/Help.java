@@ -21,6 +21,7 @@ public class Help {
         System.out.println("Utilisation: java -jar Root.jar [option] [option2] [option3] (option 3 valable uniquement avec --comment)\n");
         System.out.println("Options 1:");
         System.out.println("  -d, --directory\tAnalyser un répertoire");
+        System.out.println("  -d ARCHIVE\t\tAnalyser sans extraction les fichiers .py d'une archive .zip, .tar, .tar.gz ou .tgz");
         System.out.println("  -f, --file\t\tAnalyser un fichier");
         System.out.println("Options 2:");
         System.out.println("  --type\t\tVérifier les annotations de type d'un fichier .py");
@@ -30,5 +31,19 @@ public class Help {
         System.out.println("  --comment\t\tAjouter un squelette de commentaire pydoc sur les fonctions sans commentaire d'un fichier .py");
         System.out.println("   avec nom et version Exemple --comment NOM VERSION");
         System.out.println("  --stat\t\tAfficher les statistiques de qualité sur un ensemble de fichiers d'un dossier");
+        System.out.println("  --stat-tree [N]\tAvec -d, afficher les statistiques de chaque dossier (arbre trié) ou les N dossiers les moins couverts");
+        System.out.println("  -j N\t\t\tAnalyser un répertoire avec N threads (par défaut : nombre de processeurs)");
+        System.out.println("  --prefetch [N]\t\tAvec -d, lire d'avance jusqu'à N fichiers à la fois (défaut 64), pour les montages réseau (NFS, SSHFS)");
+        System.out.println("  --cache\t\tAvec -d, ne pas relire les fichiers inchangés depuis la dernière analyse (.japybeautify-cache)");
+        System.out.println("  --watch\t\tAvec -d, surveiller le répertoire et réanalyser les fichiers modifiés (statistiques à jour)");
+        System.out.println("  --ignore MOTIF\t\tAvec -d, ne pas parcourir les chemins correspondant au motif (syntaxe .gitignore, option répétable)");
+        System.out.println("  --no-ignore\t\tAvec -d, parcourir aussi .git, venv, node_modules, __pycache__, site-packages et les chemins des .gitignore");
+        System.out.println("  --changed-since REF\tAvec -d, analyser seulement les fichiers .py ajoutés ou modifiés depuis la référence git REF");
+        System.out.println("  --staged\t\tAvec -d, analyser le contenu indexé (git add) des fichiers .py modifiés depuis REF ou HEAD");
+        System.out.println("  --regles ID[,ID...]\tAppliquer aussi les règles ligne par ligne demandées : todo (TODO, FIXME, XXX), print (appels à print)");
+        System.out.println("  --metrics [N]\t\tAvec -d, afficher le temps par vérification, le débit et les N fichiers les plus lents (événements JFR)");
+        System.out.println("  --format ndjson\tÉcrire un objet JSON par fichier (détail par fonction), sans texte autour");
+        System.out.println("  --daemon [-s SOCKET]\tGarder l'analyseur en mémoire derrière une socket locale (client : java -cp Root.jar cli.Client fichier.py...)");
+        System.out.println("  -d DOSSIER --sbutf8 --comment NOM VERSION\tCorriger en parallèle tous les fichiers .py du répertoire");
     }
 }
\ No newline at end of file
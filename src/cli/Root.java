@@ -1,8 +1,16 @@
 package cli;
 
+import java.io.BufferedWriter;
 import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
 import outil.*;
 import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
 
 /**
  * Classe principale de l'application Root.
@@ -11,6 +19,13 @@ import java.io.File;
  * @author FWALA Yvon
  */
 public class Root {
+    private static final String FORMAT_TEXTE = "texte";
+    private static final String FORMAT_NDJSON = "ndjson";
+    /** Nombre de fichiers les plus lents affiches par --metrics lorsqu'il n'est pas precise. */
+    private static final int PLUS_LENTS_PAR_DEFAUT = 10;
+    /** Nombre de lectures simultanees de --prefetch lorsqu'il n'est pas precise. */
+    private static final int LECTURES_PAR_DEFAUT = 64;
+
     /**
      * Methode principale de l'application Root.
      *
@@ -18,40 +33,79 @@ public class Root {
      * @throws IOException Si une exception d'entree/sortie se produit.
      */
     public static void main(String[] args) throws IOException {
+        // Avec --format ndjson, la sortie standard ne contient que les objets JSON
+        boolean ndjson = FORMAT_NDJSON.equals(valeurOption(args, "--format"));
+
         // Affiche le message de démarrage du programme
-        System.out.println("\t-#-Le programme démarre-#-");
+        if (!ndjson) {
+            System.out.println("\t-#-Le programme démarre-#-");
+        }
         String result = "";
 
         try {
+            // Vérifie si l'option --regles est spécifiée : règles ligne par ligne ajoutées aux règles par défaut
+            if (contientOption(args, "--regles")) {
+                JeuRegles.activer(lireRegles(args));
+            }
+
             // Vérifie si l'option -h est spécifiée pour afficher l'aide ou que si il n'y a pas d'option cela affiche l'aide
             if (args.length == 0 || args[0].equalsIgnoreCase("-h")) {
                 Help besoinAide = new Help();
                 besoinAide.helpMe();
             }
+            // Vérifie si l'option --daemon est spécifiée : le moteur d'analyse reste en mémoire derrière une socket locale
+            else if (args[0].equals("--daemon")) {
+                Path socket = ServeurAnalyse.socketParDefaut();
+                int parallelisme = Runtime.getRuntime().availableProcessors();
+                for (int i = 1; i < args.length; i++) {
+                    if (args[i].equals("-s")) {
+                        socket = Paths.get(args[++i]);
+                    } else if (args[i].equals("-j")) {
+                        parallelisme = Integer.parseInt(args[++i]);
+                        if (parallelisme < 1) {
+                            throw new NumberFormatException(args[i]);
+                        }
+                    }
+                }
+                new ServeurAnalyse(socket, parallelisme).servir();
+            }
             // Vérifie si l'option -d est spécifiée avec "." pour analyser le répertoire actuel
             else if (args.length >= 2 && args[0].equals("-d") && args[1].equals(".")) {
                 // Utilise la fonction parcourirArborescence pour le dossier courant
-                result = parcourirArborescence(new File(System.getProperty("user.dir")));
-
-                // Vérifie si l'option --stat est spécifiée en plus de -d .
-                if (args.length > 2 && args[2].equals("--stat")) {
-                    Statistique stat = new Statistique(System.getProperty("user.dir"));
-                    result += "\n" + stat.statRepertoire(); // Ajout de l'analyse statistique
-                }
-
-                System.out.println("\t Resultat de l'opération :\n" + result);
+                parcourirArborescence(new File(System.getProperty("user.dir")), args);
             }
             // Vérifie si l'option -f est spécifiée avec un fichier .py et des options supplémentaires
             else if (args.length >= 2 && args[0].equals("-f") && args[1].endsWith(".py")) {
                 Verificateur verif = new Verificateur(args[1]);
                 AideCorrectionFichier aide = new AideCorrectionFichier(args[1]);
 
+                // Avec --format ndjson, le résultat détaillé du fichier est écrit sur une seule ligne
+                // Le JSON est toujours en UTF-8, quel que soit l'encodage par défaut de la machine
+                if (lireFormat(args).equals(FORMAT_NDJSON)) {
+                    Writer sortie = new BufferedWriter(new OutputStreamWriter(System.out, StandardCharsets.UTF_8));
+                    new SortieNdjson(sortie).fichier(verif.analyser());
+                    sortie.flush();
+                    return;
+                }
+
                 // Si l'option -f est spécifiée sans autre paramètre, effectuez toutes les analyses
                 if (args.length == 2) {
-                    result += verif.verifierType() + "\n";
-                    result += verif.verifierShebang() + "\n";
-                    result += verif.verifierPydoc() + "\n";
+                    // Une seule lecture du fichier pour toutes les analyses
+                    ResultatFichier analyse = verif.analyser();
+                    result += analyse.rapportType() + "\n";
+                    result += analyse.rapportShebang() + "\n";
+                    result += analyse.rapportPydoc() + "\n";
                 } else {
+                    // Les corrections demandées sont appliquées ensemble, en une seule réécriture du fichier
+                    PipelineCorrection.Bilan correction = null;
+                    int indiceCommentaire = indiceOption(args, "--comment");
+                    boolean commentaire = indiceCommentaire >= 0 && indiceCommentaire + 2 < args.length;
+                    if (contientOption(args, "--sbutf8") || commentaire) {
+                        correction = aide.corriger(contientOption(args, "--sbutf8"),
+                                commentaire ? args[indiceCommentaire + 1] : null,
+                                commentaire ? args[indiceCommentaire + 2] : null);
+                    }
+
                     // Sinon, analyse les options spécifiées après -f
                     for (int i = 2; i < args.length; i++) {
                         switch (args[i]) {
@@ -67,15 +121,20 @@ public class Root {
                             case "--pydoc":
                                 result += verif.verifierPydoc() + "\n";
                                 break;
+                            case "--format":
+                                i++; // La valeur du format est lue par lireFormat
+                                break;
+                            case "--regles":
+                                i++; // Les règles demandées sont activées avant l'analyse
+                                result += verif.analyser().rapportConstats();
+                                break;
                             case "--sbutf8":
-                                result += aide.ajouterShebang() + "\n";
+                                result += correction.getMessageShebang() + "\n";
                                 break;
                             case "--comment":
                                 // Vérifie s'il y a suffisamment d'arguments pour le nom et la version
                                 if (i + 2 < args.length) {
-                                    String nom = args[i + 1];
-                                    String version = args[i + 2];
-                                    aide.ajouterCommentaire(nom, version);
+                                    System.out.println(correction.getMessageCommentaires());
                                     result += "Commentaires PyDoc ajoutés avec succès à toutes les fonctions.\n";
                                 } else {
                                     System.out.println("Erreur : L'option --comment nécessite un nom et une version en arguments.");
@@ -92,23 +151,19 @@ public class Root {
                 // Afficher le résultat après avoir effectué les analyses
                 System.out.println("\t Resultat de l'opération :\n" + result);
             }
+            // Vérifie si l'option -d est spécifiée avec une archive .zip, .tar, .tar.gz ou .tgz : analysée sans extraction
+            else if (args.length >= 2 && args[0].equals("-d") && AnalyseArchive.estArchive(new File(args[1])) && new File(args[1]).isFile()) {
+                parcourirArborescence(new File(args[1]).getAbsoluteFile(), args);
+            }
             // Vérifie si l'option -d est spécifiée avec un nom de dossier pour analyser les fichiers .py dans le dossier
             else if (args.length >= 2 && args[0].equals("-d")) {
                 String dossierNom = args[1];
-                RechercheFichier recherche = new RechercheFichier(dossierNom);
+                RechercheFichier recherche = new RechercheFichier(dossierNom, lireFiltre(args));
                 File dossier = recherche.trouverDossier();
 
                 if (dossier != null) {
                     // Utilisation d'une fonction récursive pour parcourir tous les fichiers Python
-                    result = parcourirArborescence(dossier);
-
-                    // Vérifie si l'option --stat est spécifiée
-                    if (args.length > 2 && args[2].equals("--stat")) {
-                        Statistique stat = new Statistique(dossier.getAbsolutePath());
-                        result += "\n" + stat.statRepertoire(); // Ajout de l'analyse statistique
-                    }
-
-                    System.out.println("\t Resultat de l'opération :\n" + result);
+                    parcourirArborescence(dossier, args);
                 } else {
                     System.out.println("\t Aucun dossier trouvé avec le nom '" + dossierNom + "'.");
                 }
@@ -119,6 +174,10 @@ public class Root {
                 System.out.println("\t Erreur de paramètre !");
                 System.out.println("\t Utilisez l'option -h pour obtenir de l'aide\n");
             }
+        } catch (NumberFormatException e) {
+            System.out.println("\t Erreur : L'option -j nécessite un nombre de threads entier positif.\n");
+        } catch (IllegalArgumentException e) {
+            System.out.println("\t Erreur : " + e.getMessage() + "\n");
         } catch (ArrayIndexOutOfBoundsException e) {
             System.out.println("\t Erreur : Arguments insuffisants. Utilisez '-h' pour obtenir de l'aide.\n");
         } catch (Exception e) {
@@ -126,37 +185,297 @@ public class Root {
         }
 
         // Affiche le message de fin du programme
-        System.out.println("\t-#-Le programme est terminé-#-");
+        if (!ndjson) {
+            System.out.println("\t-#-Le programme est terminé-#-");
+        }
+    }
+
+    /**
+     * Parcours recursivement l'arborescence d'un dossier, ou les entrees d'une archive, analyse les fichiers Python
+     * (.py) en parallele et ecrit le resultat de chaque fichier des qu'il est pret, dans l'ordre d'un parcours
+     * sequentiel.
+     * Ajoute les statistiques de toute l'arborescence, sans relecture, si l'option --stat est presente, et celles
+     * de chaque dossier avec --stat-tree.
+     * Avec --sbutf8 ou --comment, les fichiers sont corriges au lieu d'etre analyses.
+     *
+     * @param dossier Le dossier ou l'archive à parcourir.
+     * @param args    Les arguments en ligne de commande (options -j, --prefetch, --stat, --cache, --watch, --format,
+     *                --metrics, --stat-tree, --changed-since, --staged, --ignore, --no-ignore, --sbutf8 et --comment ; --regles est lue par
+     *                main).
+     * @throws IOException Si l'ecriture du rapport echoue.
+     */
+    private static void parcourirArborescence(File dossier, String[] args) throws IOException {
+        int parallelisme = lireParallelisme(args);
+        boolean ndjson = lireFormat(args).equals(FORMAT_NDJSON);
+        // La sortie standard n'est pas fermée : elle sert encore au message de fin ; le JSON est toujours en UTF-8
+        Writer sortie = new BufferedWriter(ndjson ? new OutputStreamWriter(System.out, StandardCharsets.UTF_8)
+                : new OutputStreamWriter(System.out));
+
+        // Une archive est lue sans être extraite : elle ne peut être ni surveillée ni corrigée
+        boolean archive = dossier.isFile();
+        if (archive && (contientOption(args, "--watch") || contientOption(args, "--sbutf8") || contientOption(args, "--comment"))) {
+            throw new IllegalArgumentException("Une archive peut seulement être analysée (options --watch, --sbutf8 et --comment impossibles).");
+        }
+
+        // Vérifie si l'option --cache est spécifiée : les fichiers inchangés ne sont pas relus
+        CacheAnalyse cache = contientOption(args, "--cache") && !archive ? CacheAnalyse.ouvrir(dossier) : null;
+        // Vérifie si l'option --metrics est spécifiée : temps par vérification, débit et fichiers les plus lents
+        Mesures mesures = contientOption(args, "--metrics") ? new Mesures(lireNombreFacultatif(args, "--metrics", PLUS_LENTS_PAR_DEFAUT)) : null;
+        MoteurAnalyse moteur = new MoteurAnalyse(cache, mesures, true);
+        // Les options --ignore et --no-ignore règlent les dossiers et fichiers exclus du parcours
+        FiltreIgnores filtre = lireFiltre(args);
+        // Vérifie si l'option --prefetch est spécifiée : les fichiers sont lus d'avance par des threads dédiés (montages réseau)
+        int lectures = contientOption(args, "--prefetch") ? lireNombreFacultatif(args, "--prefetch", LECTURES_PAR_DEFAUT) : 0;
+        ParcoursArborescence parcours = new ParcoursArborescence(parallelisme, lectures, moteur, filtre);
+
+        // Vérifie si les options --changed-since ou --staged sont spécifiées : seuls les fichiers modifiés selon git sont analysés
+        SelectionFichiers selection = archive ? new AnalyseArchive(dossier) : null;
+        if (contientOption(args, "--changed-since") || contientOption(args, "--staged")) {
+            String reference = valeurOption(args, "--changed-since");
+            if (contientOption(args, "--changed-since") && reference == null) {
+                throw new IllegalArgumentException("L'option --changed-since nécessite une référence git (branche, étiquette ou commit).");
+            }
+            selection = new ModificationsGit(dossier, reference != null ? reference : ModificationsGit.REFERENCE_PAR_DEFAUT,
+                    contientOption(args, "--staged"));
+        }
+
+        // Vérifie si l'option --watch est spécifiée : analyse complète puis seulement les fichiers modifiés
+        if (contientOption(args, "--watch")) {
+            try {
+                new SurveillanceArborescence(dossier, parcours, moteur, cache).surveiller(sortie);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return;
+        }
+
+        // Vérifie si l'option --format ndjson est spécifiée : un objet JSON par fichier, sans texte autour
+        if (ndjson && !contientOption(args, "--sbutf8") && !contientOption(args, "--comment")) {
+            SortieNdjson json = new SortieNdjson(sortie);
+            StatistiqueArborescence arbre = contientOption(args, "--stat-tree") ? new StatistiqueArborescence(dossier, json) : null;
+            SortieRapport rapport = arbre != null ? arbre : json;
+            if (contientOption(args, "--stat")) {
+                SortieStatistique stat = new SortieStatistique(rapport);
+                parcourir(parcours, selection, moteur, dossier, stat, null);
+                json.statistiques(stat.getCumul());
+            } else {
+                parcourir(parcours, selection, moteur, dossier, rapport, null);
+            }
+            if (arbre != null) {
+                json.dossiers(arbre);
+            }
+            if (mesures != null) {
+                mesures.arreter();
+                json.mesures(mesures);
+            }
+            if (cache != null) {
+                // Une sélection de fichiers ne doit pas retirer de l'index les fichiers qu'elle n'a pas vus
+                cache.enregistrer(selection == null);
+            }
+            sortie.flush();
+            return;
+        }
+
+        sortie.write("\t Resultat de l'opération :\n");
+
+        // Vérifie si les options --sbutf8 ou --comment sont spécifiées : toute l'arborescence est corrigée
+        int indiceCommentaire = indiceOption(args, "--comment");
+        if (contientOption(args, "--sbutf8") || indiceCommentaire >= 0) {
+            String nom = null;
+            String version = null;
+            if (indiceCommentaire >= 0) {
+                nom = args[indiceCommentaire + 1];
+                version = args[indiceCommentaire + 2];
+            }
+            PipelineCorrection pipeline = new PipelineCorrection(contientOption(args, "--sbutf8"), nom, version);
+            new CorrectionArborescence(parallelisme, pipeline, filtre).corriger(dossier, sortie);
+            sortie.write("\n");
+            sortie.flush();
+            return;
+        }
+
+        // Vérifie si l'option --stat-tree est spécifiée : statistiques de chaque dossier, cumulées des feuilles vers la racine
+        StatistiqueArborescence arbre = contientOption(args, "--stat-tree") ? new StatistiqueArborescence(dossier, new SortieTexte(sortie)) : null;
+        SortieRapport rapport = arbre != null ? arbre : new SortieTexte(sortie);
+
+        // Vérifie si l'option --stat est spécifiée : les statistiques cumulent les résultats du parcours
+        if (contientOption(args, "--stat")) {
+            SortieStatistique stat = new SortieStatistique(rapport);
+            parcourir(parcours, selection, moteur, dossier, stat, sortie);
+            sortie.write("\n" + stat.getCumul().rapport(dossier)); // Ajout de l'analyse statistique
+        } else {
+            parcourir(parcours, selection, moteur, dossier, rapport, sortie);
+        }
+
+        // Avec --stat-tree N, seuls les N dossiers les moins couverts sont affichés
+        if (arbre != null) {
+            int nbDossiers = lireNombreFacultatif(args, "--stat-tree", 0);
+            sortie.write("\n" + (nbDossiers > 0 ? arbre.rapportMoinsCouverts(nbDossiers) : arbre.rapportArbre()));
+        }
+
+        if (mesures != null) {
+            mesures.arreter();
+            sortie.write("\n" + mesures.rapport());
+        }
+
+        if (cache != null) {
+            cache.enregistrer(selection == null);
+        }
+
+        sortie.write("\n");
+        sortie.flush();
+    }
+
+    /**
+     * Analyse toute l'arborescence du dossier ou seulement une selection de fichiers (fichiers modifies selon git,
+     * fichiers d'une archive).
+     *
+     * @param parcours  Le parcours qui execute les analyses.
+     * @param selection Les fichiers a analyser, ou null pour toute l'arborescence.
+     * @param moteur    Le moteur d'analyse.
+     * @param dossier   Le dossier analyse.
+     * @param rapport   La sortie qui recoit les resultats.
+     * @param texte     Le flux du rapport texte, pour signaler une selection vide, ou null.
+     * @throws IOException Si la lecture de la selection ou l'ecriture du rapport echoue.
+     */
+    private static void parcourir(ParcoursArborescence parcours, SelectionFichiers selection, MoteurAnalyse moteur,
+                                  File dossier, SortieRapport rapport, Writer texte) throws IOException {
+        if (selection == null) {
+            parcours.parcourir(dossier, rapport);
+        } else if (selection.analyser(parcours, moteur, rapport) == 0 && texte != null) {
+            texte.write("\t Aucun fichier Python à analyser.\n");
+        }
     }
 
     /**
-     * Parcours recursivement l'arborescence d'un dossier et analyse les fichiers Python (.py).
+     * Lit le nombre de threads donne par l'option -j N.
      *
-     * @param dossier Le dossier à parcourir.
-     * @return Une chaine de caracteres contenant les resultats des analyses des fichiers Python.
+     * @param args Les arguments en ligne de commande.
+     * @return Le nombre de threads demande, ou le nombre de processeurs disponibles si -j est absent.
+     * @throws NumberFormatException Si la valeur de -j n'est pas un entier positif.
      */
-    private static String parcourirArborescence(File dossier) {
-        StringBuilder result = new StringBuilder();
-        File[] fichiers = dossier.listFiles();
-
-        if (fichiers != null) {
-            for (File fichier : fichiers) {
-                if (fichier.isDirectory()) {
-                    // Appel récursif pour les sous-dossiers
-                    result.append(parcourirArborescence(fichier));
-                } else if (fichier.getName().endsWith(".py")) {
-                    // Analyser le fichier Python
-                    Analyseur coibaye = new Analyseur(fichier.getAbsolutePath());
-                    result.append(coibaye.analyserFichier()).append("\n");
+    private static int lireParallelisme(String[] args) {
+        for (int i = 2; i < args.length; i++) {
+            if (args[i].equals("-j")) {
+                int parallelisme = Integer.parseInt(args[i + 1]);
+                if (parallelisme < 1) {
+                    throw new NumberFormatException(args[i + 1]);
                 }
+                return parallelisme;
+            }
+        }
+        return Runtime.getRuntime().availableProcessors();
+    }
+
+    /**
+     * Construit les regles d'exclusion du parcours : les dossiers ignores par defaut et les fichiers .gitignore,
+     * sauf avec --no-ignore, et les motifs donnes par chaque option --ignore MOTIF.
+     *
+     * @param args Les arguments en ligne de commande.
+     * @return Les regles d'exclusion.
+     */
+    private static FiltreIgnores lireFiltre(String[] args) {
+        List<String> motifs = new ArrayList<>();
+        for (int i = 2; i + 1 < args.length; i++) {
+            if (args[i].equals("--ignore")) {
+                motifs.add(args[++i]);
             }
         }
+        boolean tout = contientOption(args, "--no-ignore");
+        return new FiltreIgnores(motifs, !tout, !tout);
+    }
 
-        // Affiche un message si aucun fichier Python n'est trouvé dans le dossier
-        if (result.length() == 0) {
-            System.out.println("Aucun fichier Python trouvé dans le dossier '" + dossier.getAbsolutePath() + "'.");
+    /**
+     * Lit les identifiants des regles donnes par l'option --regles ID[,ID...].
+     *
+     * @param args Les arguments en ligne de commande.
+     * @return Les identifiants des regles demandees.
+     * @throws IllegalArgumentException Si l'option --regles n'est suivie d'aucun identifiant.
+     */
+    private static List<String> lireRegles(String[] args) {
+        String valeur = valeurOption(args, "--regles");
+        if (valeur == null || valeur.startsWith("-")) {
+            throw new IllegalArgumentException("L'option --regles nécessite une liste de règles, par exemple --regles todo,print.");
+        }
+        List<String> identifiants = new ArrayList<>();
+        for (String identifiant : valeur.split(",")) {
+            if (!identifiant.isBlank()) {
+                identifiants.add(identifiant.trim());
+            }
         }
+        return identifiants;
+    }
 
-        return result.toString();
+    /**
+     * Lit le nombre facultatif qui suit une option, comme N dans --metrics N, --stat-tree N ou --prefetch N.
+     *
+     * @param args      Les arguments en ligne de commande.
+     * @param option    L'option.
+     * @param parDefaut La valeur si l'option n'est pas suivie d'un nombre.
+     * @return Le nombre qui suit l'option, ou parDefaut.
+     */
+    private static int lireNombreFacultatif(String[] args, String option, int parDefaut) {
+        String valeur = valeurOption(args, option);
+        if (valeur == null || valeur.isEmpty() || !Character.isDigit(valeur.charAt(0))) {
+            return parDefaut;
+        }
+        return Integer.parseInt(valeur);
+    }
+
+    /**
+     * Lit le format de sortie donne par l'option --format.
+     *
+     * @param args Les arguments en ligne de commande.
+     * @return "texte" (par defaut) ou "ndjson".
+     * @throws IllegalArgumentException Si le format demande n'existe pas.
+     */
+    private static String lireFormat(String[] args) {
+        String format = valeurOption(args, "--format");
+        if (format == null) {
+            return FORMAT_TEXTE;
+        }
+        if (!format.equals(FORMAT_TEXTE) && !format.equals(FORMAT_NDJSON)) {
+            throw new IllegalArgumentException("Format inconnu '" + format + "' (formats possibles : texte, ndjson).");
+        }
+        return format;
+    }
+
+    /**
+     * Donne la valeur qui suit une option.
+     *
+     * @param args   Les arguments en ligne de commande.
+     * @param option L'option recherchee.
+     * @return La valeur de l'option, ou null si l'option est absente ou sans valeur.
+     */
+    private static String valeurOption(String[] args, String option) {
+        int indice = indiceOption(args, option);
+        return indice >= 0 && indice + 1 < args.length ? args[indice + 1] : null;
+    }
+
+    /**
+     * Verifie si une option est presente apres le dossier a analyser.
+     *
+     * @param args   Les arguments en ligne de commande.
+     * @param option L'option recherchee.
+     * @return true si l'option est presente.
+     */
+    private static boolean contientOption(String[] args, String option) {
+        return indiceOption(args, option) >= 0;
+    }
+
+    /**
+     * Cherche la position d'une option apres le fichier ou le dossier a traiter.
+     *
+     * @param args   Les arguments en ligne de commande.
+     * @param option L'option recherchee.
+     * @return L'indice de l'option dans args, ou -1 si elle est absente.
+     */
+    private static int indiceOption(String[] args, String option) {
+        for (int i = 2; i < args.length; i++) {
+            if (args[i].equals(option)) {
+                return i;
+            }
+        }
+        return -1;
     }
 }
@@ -5,5 +5,11 @@
  * 
  */
 module projectv3 {
-	requires java.desktop;
+	requires java.management;
+	requires jdk.jfr;
+
+	exports cli;
+	exports outil;
+
+	uses outil.Regle;
 }
\ No newline at end of file
@@ -0,0 +1,128 @@
+package outil;
+
+import java.io.BufferedInputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.FileSystem;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Iterator;
+import java.util.Locale;
+import java.util.stream.Stream;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * La classe AnalyseArchive analyse les fichiers Python d'une archive .zip, .tar, .tar.gz ou .tgz sans
+ * l'extraire : aucun fichier n'est ecrit sur le disque. Une archive zip est ouverte comme un systeme de fichiers
+ * (acces direct a chaque entree) et ses entrees sont decompressees par les threads d'analyse ; une archive tar,
+ * compressee ou non, est lue en une seule passe sequentielle et chaque contenu est transmis aux threads
+ * d'analyse des qu'il est lu.
+ *
+ * <p>Le chemin d'une entree dans les rapports est le chemin de l'archive suivi de "!/" et du chemin de l'entree.
+ *
+ *
+ * @author CHEBALLAH Jawed
+ * @author FWALA Yvon
+ */
+public class AnalyseArchive implements SelectionFichiers {
+    private final File archive;
+
+    /**
+     * Constructeur de la classe AnalyseArchive.
+     *
+     * @param archive Le fichier de l'archive.
+     */
+    public AnalyseArchive(File archive) {
+        this.archive = archive.getAbsoluteFile();
+    }
+
+    /**
+     * Indique si un fichier est une archive reconnue, d'apres son extension.
+     *
+     * @param fichier Le fichier a tester.
+     * @return true pour un fichier .zip, .tar, .tar.gz ou .tgz.
+     */
+    public static boolean estArchive(File fichier) {
+        String nom = fichier.getName().toLowerCase(Locale.ROOT);
+        return nom.endsWith(".zip") || nom.endsWith(".tar") || nom.endsWith(".tar.gz") || nom.endsWith(".tgz");
+    }
+
+    @Override
+    public int analyser(ParcoursArborescence parcours, MoteurAnalyse moteur, SortieRapport sortie) throws IOException {
+        if (archive.getName().toLowerCase(Locale.ROOT).endsWith(".zip")) {
+            return analyserZip(parcours, moteur, sortie);
+        }
+        return analyserTar(parcours, moteur, sortie);
+    }
+
+    private int analyserZip(ParcoursArborescence parcours, MoteurAnalyse moteur, SortieRapport sortie) throws IOException {
+        int[] nombre = {0};
+        try (FileSystem zip = FileSystems.newFileSystem(archive.toPath());
+             Stream<Path> entrees = Files.walk(zip.getPath("/"))) {
+            Iterator<Path> fichiers = entrees
+                    .filter(entree -> entree.toString().endsWith(".py") && Files.isRegularFile(entree))
+                    .iterator();
+            parcours.parcourir(() -> {
+                if (!fichiers.hasNext()) {
+                    return null;
+                }
+                Path entree = fichiers.next();
+                nombre[0]++;
+                // L'entrée est décompressée par le thread d'analyse
+                return () -> {
+                    try {
+                        return moteur.analyser(chemin(entree.toString().substring(1)), entree.getFileName().toString(),
+                                Files.readAllBytes(entree));
+                    } catch (IOException e) {
+                        return enErreur(entree.toString().substring(1), e);
+                    }
+                };
+            }, sortie);
+        }
+        return nombre[0];
+    }
+
+    private int analyserTar(ParcoursArborescence parcours, MoteurAnalyse moteur, SortieRapport sortie) throws IOException {
+        int[] nombre = {0};
+        try (InputStream flux = ouvrirTar()) {
+            LectureTar tar = new LectureTar(flux);
+            parcours.parcourir(() -> {
+                // Les autres entrées sont sautées sans être lues
+                String nom = tar.suivante();
+                while (nom != null && !nom.endsWith(".py")) {
+                    nom = tar.suivante();
+                }
+                if (nom == null) {
+                    return null;
+                }
+                String entree = nom;
+                byte[] contenu = tar.lireContenu();
+                nombre[0]++;
+                return () -> moteur.analyser(chemin(entree), new File(entree).getName(), contenu);
+            }, sortie);
+        }
+        return nombre[0];
+    }
+
+    // Une archive tar compressée par gzip est reconnue à sa signature, quelle que soit son extension
+    private InputStream ouvrirTar() throws IOException {
+        InputStream flux = new BufferedInputStream(new FileInputStream(archive), 64 * 1024);
+        flux.mark(2);
+        boolean gzip = flux.read() == 0x1F && flux.read() == 0x8B;
+        flux.reset();
+        return gzip ? new BufferedInputStream(new GZIPInputStream(flux, 64 * 1024), 64 * 1024) : flux;
+    }
+
+    private String chemin(String entree) {
+        return archive.getPath() + "!/" + entree;
+    }
+
+    private ResultatFichier enErreur(String entree, IOException e) {
+        ResultatFichier resultat = new ResultatFichier(chemin(entree), new File(entree).getName());
+        resultat.erreur = e.getMessage();
+        return resultat;
+    }
+}
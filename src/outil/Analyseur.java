@@ -1,9 +1,5 @@
 package outil;
 
-import java.io.BufferedReader;
-import java.io.FileReader;
-import java.io.IOException;
-import java.util.regex.Pattern;
 import java.io.File;
 /**
  * La classe Analyseur permet d'analyser des fichiers Python specifies ou tout un repertoire de fichiers Python.
@@ -32,15 +28,7 @@ public class Analyseur {
      * @return Un rapport d'analyse du fichier.
      */
     public String analyserFichier() {
-        StringBuilder result = new StringBuilder();
-        Verificateur verif = new Verificateur(path);
-        result.append("Nom du fichier : ").append(new File(path).getName()).append("\n");
-        result.append(verif.verifierShebang());
-        result.append(verif.verifierPydoc());
-        result.append(verif.verifierType());
-        result.append(compteurDeFonctions());
-
-        return result.toString();
+        return new MoteurAnalyse().analyser(path).rapport();
     }
 
     /**
@@ -56,15 +44,10 @@ public class Analyseur {
         File[] fichiers = repertoire.listFiles((dir, nom) -> nom.endsWith(".py"));
 
         if (fichiers != null && fichiers.length > 0) {
+            MoteurAnalyse moteur = new MoteurAnalyse();
             for (File fichier : fichiers) {
-                Verificateur verif = new Verificateur(fichier.getAbsolutePath());
-                Analyseur analyseur = new Analyseur(fichier.getAbsolutePath());
-                result.append("Analyse du fichier ").append(fichier.getName()).append(" :\n");
-                result.append(verif.verifierShebang());
-                result.append(verif.verifierPydoc());
-                result.append(verif.verifierType());
-                result.append(analyseur.compteurDeFonctions());
-                result.append("\n");
+                // Une seule lecture du fichier pour toutes les vérifications
+                result.append(moteur.analyser(fichier).rapportRepertoire());
             }
         } else {
             result.append("\t Aucun fichier Python trouvé dans le répertoire ").append(repertoire).append(".\n");
@@ -79,25 +62,6 @@ public class Analyseur {
      * @return Le nombre de fonctions dans le fichier.
      */
     public String compteurDeFonctions() {
-        File fichier = new File(path);
-        StringBuilder result = new StringBuilder();
-
-        try (BufferedReader br = new BufferedReader(new FileReader(fichier))) {
-            String ligne;
-            int nbFonctions = 0;
-
-            while ((ligne = br.readLine()) != null) {
-                // Vérifie si la ligne correspond à une déclaration de fonction
-                if (Pattern.matches("\\s*def\\s+\\w+\\([^)]*\\):", ligne) || Pattern.matches(("\\s*def\\s+\\w+\\([^)]*\\)(\\s*->\\s*\\w+)?\\s*:"), ligne)) {
-                    nbFonctions++;
-                }
-            }
-            result.append("\t Nombre de fonctions : ").append(nbFonctions).append("\n");
-
-        } catch (IOException e) {
-            result.append("\t Erreur lors de la lecture du fichier ").append(fichier.getName()).append(": ").append(e.getMessage()).append("\n");
-        }
-
-        return result.toString();
+        return new MoteurAnalyse().analyser(path).rapportFonctions();
     }
 }
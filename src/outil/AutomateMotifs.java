@@ -0,0 +1,174 @@
+package outil;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * La classe AutomateMotifs reconnait plusieurs motifs a la fois en un seul parcours du texte, selon l'algorithme
+ * d'Aho-Corasick : les motifs forment un arbre de prefixes complete par des liens d'echec, de sorte que chaque
+ * caractere lu fait avancer l'automate d'un seul etat, quel que soit le nombre de motifs. Pour les caracteres
+ * ASCII, la transition est une simple lecture de tableau ; les autres caracteres suivent les liens d'echec.
+ *
+ *
+ * @author CHEBALLAH Jawed
+ * @author FWALA Yvon
+ */
+final class AutomateMotifs {
+    private static final int ASCII = 128;
+    private static final int[] AUCUNE = new int[0];
+
+    private final int[][] transitions;
+    private final List<Map<Character, Integer>> etendues;
+    private final int[] echecs;
+    private final int[] profondeurs;
+    private final int[][] sorties;
+
+    /**
+     * Construit l'automate des motifs.
+     *
+     * @param motifs Les textes recherches ; leur indice dans la liste est renvoye par sorties.
+     */
+    AutomateMotifs(List<String> motifs) {
+        // Arbre des préfixes : -1 marque une transition absente
+        List<int[]> arbre = new ArrayList<>();
+        List<Map<Character, Integer>> arbreEtendu = new ArrayList<>();
+        List<Integer> profondeur = new ArrayList<>();
+        List<List<Integer>> fins = new ArrayList<>();
+        boolean nonAscii = false;
+        ajouterEtat(arbre, arbreEtendu, profondeur, fins, 0);
+
+        for (int m = 0; m < motifs.size(); m++) {
+            String motif = motifs.get(m);
+            int etat = 0;
+            for (int i = 0; i < motif.length(); i++) {
+                char c = motif.charAt(i);
+                Integer suivant;
+                if (c < ASCII) {
+                    suivant = arbre.get(etat)[c] >= 0 ? arbre.get(etat)[c] : null;
+                } else {
+                    nonAscii = true;
+                    suivant = arbreEtendu.get(etat) != null ? arbreEtendu.get(etat).get(c) : null;
+                }
+                if (suivant == null) {
+                    suivant = ajouterEtat(arbre, arbreEtendu, profondeur, fins, i + 1);
+                    if (c < ASCII) {
+                        arbre.get(etat)[c] = suivant;
+                    } else {
+                        if (arbreEtendu.get(etat) == null) {
+                            arbreEtendu.set(etat, new HashMap<>());
+                        }
+                        arbreEtendu.get(etat).put(c, suivant);
+                    }
+                }
+                etat = suivant;
+            }
+            fins.get(etat).add(m);
+        }
+
+        int nombre = arbre.size();
+        transitions = arbre.toArray(new int[nombre][]);
+        etendues = nonAscii ? arbreEtendu : null;
+        echecs = new int[nombre];
+        profondeurs = new int[nombre];
+        sorties = new int[nombre][];
+        for (int e = 0; e < nombre; e++) {
+            profondeurs[e] = profondeur.get(e);
+        }
+
+        // Parcours en largeur : le lien d'échec d'un état est toujours moins profond que lui, donc déjà calculé
+        Deque<Integer> file = new ArrayDeque<>();
+        file.add(0);
+        while (!file.isEmpty()) {
+            int etat = file.poll();
+            List<Integer> finsEtat = fins.get(etat);
+            int[] sortiesEchec = etat == 0 ? AUCUNE : sorties[echecs[etat]];
+            int[] sortiesEtat = Arrays.copyOf(finsEtat.stream().mapToInt(Integer::intValue).toArray(),
+                    finsEtat.size() + sortiesEchec.length);
+            System.arraycopy(sortiesEchec, 0, sortiesEtat, finsEtat.size(), sortiesEchec.length);
+            sorties[etat] = sortiesEtat.length == 0 ? AUCUNE : sortiesEtat;
+
+            for (int c = 0; c < ASCII; c++) {
+                int fils = transitions[etat][c];
+                int parEchec = etat == 0 ? 0 : transitions[echecs[etat]][c];
+                if (fils < 0) {
+                    transitions[etat][c] = parEchec;
+                } else {
+                    echecs[fils] = parEchec;
+                    file.add(fils);
+                }
+            }
+            if (etendues != null && etendues.get(etat) != null) {
+                for (Map.Entry<Character, Integer> fils : etendues.get(etat).entrySet()) {
+                    echecs[fils.getValue()] = etat == 0 ? 0 : suivant(echecs[etat], fils.getKey());
+                    file.add(fils.getValue());
+                }
+            }
+        }
+    }
+
+    private static int ajouterEtat(List<int[]> arbre, List<Map<Character, Integer>> arbreEtendu, List<Integer> profondeur,
+                                   List<List<Integer>> fins, int longueur) {
+        int[] fils = new int[ASCII];
+        Arrays.fill(fils, -1);
+        arbre.add(fils);
+        arbreEtendu.add(null);
+        profondeur.add(longueur);
+        fins.add(new ArrayList<>());
+        return arbre.size() - 1;
+    }
+
+    /**
+     * Donne l'etat atteint en lisant un caractere.
+     *
+     * @param etat L'etat courant (0 au debut du texte).
+     * @param c    Le caractere lu.
+     * @return Le nouvel etat.
+     */
+    int suivant(int etat, char c) {
+        if (c < ASCII) {
+            return transitions[etat][c];
+        }
+        if (etendues == null) {
+            // Aucun motif ne contient ce caractère
+            return 0;
+        }
+        while (true) {
+            Integer fils = etendues.get(etat) != null ? etendues.get(etat).get(c) : null;
+            if (fils != null) {
+                return fils;
+            }
+            if (etat == 0) {
+                return 0;
+            }
+            etat = echecs[etat];
+        }
+    }
+
+    /**
+     * @param etat Un etat de l'automate.
+     * @return Les indices des motifs qui se terminent sur le dernier caractere lu, du plus long au plus court.
+     */
+    int[] sorties(int etat) {
+        return sorties[etat];
+    }
+
+    /**
+     * @param etat Un etat de l'automate.
+     * @return La longueur du texte reconnu par cet etat, c'est-a-dire du plus long suffixe lu qui commence un motif.
+     */
+    int profondeur(int etat) {
+        return profondeurs[etat];
+    }
+
+    /**
+     * @return true si l'automate ne contient aucun motif.
+     */
+    boolean estVide() {
+        return transitions.length == 1;
+    }
+}
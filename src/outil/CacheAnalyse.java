@@ -0,0 +1,377 @@
+package outil;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * La classe CacheAnalyse conserve sur disque, dans le dossier .japybeautify-cache du repertoire analyse, le
+ * resultat de chaque fichier Python deja analyse. Un fichier dont la taille et la date de modification n'ont pas
+ * change n'est pas relu ; si seule la date a change, l'empreinte du contenu permet encore d'eviter l'analyse.
+ * L'index est un fichier binaire compact, projete en memoire a l'ouverture : seules les cles sont lues au
+ * demarrage, avec la position de chaque entree, et une entree n'est decodee que lorsque son fichier est cherche.
+ * Il est invalide des que VERSION_REGLES ou les regles actives (voir JeuRegles.getSignature) changent.
+ *
+ *
+ * @author CHEBALLAH Jawed
+ * @author FWALA Yvon
+ */
+public class CacheAnalyse {
+    /** Nom du dossier du cache, cree dans le repertoire analyse. */
+    public static final String DOSSIER = ".japybeautify-cache";
+    /** Version des regles de verification : a augmenter a chaque changement de PasseAnalyse, des regles integrees ou du format des entrees. */
+    static final int VERSION_REGLES = 8;
+    private static final int MAGIQUE = 0x4a504243; // "JPBC"
+    private static final String INDEX = "index.bin";
+
+    private final Path racine;
+    /** Index projete en memoire, ou null sans index valide. */
+    private ByteBuffer index;
+    /** Position de chaque entree de l'index, par cle. */
+    private final Map<String, Integer> anciennes = new ConcurrentHashMap<>();
+    private final Map<String, Entree> entrees = new ConcurrentHashMap<>();
+
+    private CacheAnalyse(Path racine) {
+        this.racine = racine;
+    }
+
+    /**
+     * Ouvre le cache du repertoire specifie. Un index absent, d'une autre version ou illisible donne un cache vide.
+     *
+     * @param repertoire Le repertoire analyse.
+     * @return Le cache du repertoire.
+     */
+    public static CacheAnalyse ouvrir(File repertoire) {
+        CacheAnalyse cache = new CacheAnalyse(repertoire.toPath().toAbsolutePath().normalize());
+        Path index = cache.racine.resolve(DOSSIER).resolve(INDEX);
+
+        if (Files.isRegularFile(index)) {
+            try (FileChannel canal = FileChannel.open(index, StandardOpenOption.READ)) {
+                MappedByteBuffer tampon = canal.map(FileChannel.MapMode.READ_ONLY, 0, canal.size());
+                cache.charger(tampon);
+            } catch (IOException | BufferUnderflowException | IllegalArgumentException | NegativeArraySizeException e) {
+                // Index corrompu : on repart d'un cache vide
+                cache.anciennes.clear();
+                cache.index = null;
+            }
+        }
+        return cache;
+    }
+
+    /**
+     * Cherche le resultat d'un fichier inchange depuis la derniere analyse.
+     *
+     * @param fichier Le fichier a analyser.
+     * @param taille  La taille du fichier, relevee avant sa lecture.
+     * @param date    La date de modification du fichier, relevee avant sa lecture.
+     * @return Le resultat memorise, ou null si le fichier doit etre analyse.
+     */
+    public ResultatFichier chercher(File fichier, long taille, long date) {
+        String cle = cle(fichier);
+        Entree entree = ancienne(cle);
+
+        if (entree == null || entree.taille != taille) {
+            return null;
+        }
+        if (entree.date != date) {
+            // La date a change : l'empreinte du contenu decide
+            try {
+                if (Empreinte.calculer(fichier) != entree.empreinte) {
+                    return null;
+                }
+            } catch (IOException e) {
+                return null;
+            }
+            entree = entree.avecDate(date);
+        }
+
+        entrees.put(cle, entree);
+        return entree.resultat(fichier);
+    }
+
+    /**
+     * Memorise le resultat d'un fichier qui vient d'etre analyse. Les fichiers en erreur ne sont pas memorises.
+     *
+     * @param fichier  Le fichier analyse.
+     * @param taille   La taille du fichier, relevee avant sa lecture.
+     * @param date     La date de modification du fichier, relevee avant sa lecture.
+     * @param resultat Le resultat de l'analyse.
+     */
+    public void memoriser(File fichier, long taille, long date, ResultatFichier resultat) {
+        if (!resultat.enErreur()) {
+            entrees.put(cle(fichier), new Entree(taille, date, resultat));
+        }
+    }
+
+    /**
+     * Ecrit l'index des fichiers vus pendant ce parcours complet de l'arborescence : les fichiers qui n'ont pas ete
+     * vus (supprimes, deplaces) sont retires de l'index.
+     *
+     * @throws IOException Si l'ecriture de l'index echoue.
+     */
+    public void enregistrer() throws IOException {
+        enregistrer(true);
+    }
+
+    /**
+     * Ecrit l'index. L'index est ecrit dans un fichier temporaire puis deplace atomiquement, pour qu'une
+     * interruption ne laisse jamais un index tronque.
+     *
+     * @param parcoursComplet true si toute l'arborescence a ete parcourue, et seuls les fichiers vus sont gardes ;
+     *                        false pour une selection de fichiers (--changed-since), ou les autres entrees de
+     *                        l'index sont conservees.
+     * @throws IOException Si l'ecriture de l'index echoue.
+     */
+    public void enregistrer(boolean parcoursComplet) throws IOException {
+        if (!parcoursComplet) {
+            // Rien n'a été vu ni analysé (contenu indexé lu par --staged) : l'index reste tel quel
+            if (entrees.isEmpty()) {
+                return;
+            }
+            for (String cle : anciennes.keySet()) {
+                if (!entrees.containsKey(cle)) {
+                    Entree entree = ancienne(cle);
+                    if (entree != null) {
+                        entrees.put(cle, entree);
+                    }
+                }
+            }
+        }
+
+        Path dossier = Files.createDirectories(racine.resolve(DOSSIER));
+        Path temporaire = Files.createTempFile(dossier, INDEX, ".tmp");
+
+        try (DataOutputStream sortie = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temporaire)))) {
+            sortie.writeInt(MAGIQUE);
+            sortie.writeInt(VERSION_REGLES);
+            sortie.writeInt(JeuRegles.courant().getSignature());
+            sortie.writeInt(entrees.size());
+            // Chaque entrée est précédée de sa longueur, pour être sautée au chargement
+            ByteArrayOutputStream octets = new ByteArrayOutputStream();
+            DataOutputStream entree = new DataOutputStream(octets);
+            for (Map.Entry<String, Entree> e : entrees.entrySet()) {
+                ecrireTexte(sortie, e.getKey());
+                octets.reset();
+                e.getValue().ecrire(entree);
+                entree.flush();
+                sortie.writeInt(octets.size());
+                octets.writeTo(sortie);
+            }
+        } catch (IOException e) {
+            Files.deleteIfExists(temporaire);
+            throw e;
+        }
+        Files.move(temporaire, dossier.resolve(INDEX), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    private void charger(MappedByteBuffer tampon) {
+        if (tampon.remaining() < 16 || tampon.getInt() != MAGIQUE || tampon.getInt() != VERSION_REGLES
+                || tampon.getInt() != JeuRegles.courant().getSignature()) {
+            return;
+        }
+        int nombre = tampon.getInt();
+        for (int i = 0; i < nombre; i++) {
+            String cle = lireTexte(tampon);
+            int longueur = tampon.getInt();
+            if (longueur < 0) {
+                throw new IllegalArgumentException("Longueur d'entrée négative : " + longueur);
+            }
+            // L'entrée elle-même n'est décodée qu'à la première recherche de son fichier
+            anciennes.put(cle, tampon.position());
+            tampon.position(tampon.position() + longueur);
+        }
+        index = tampon;
+    }
+
+    /**
+     * Decode l'entree de l'index associee a la cle. Chaque appel lit une vue independante de l'index, de sorte que
+     * plusieurs threads peuvent chercher en meme temps.
+     */
+    private Entree ancienne(String cle) {
+        Integer position = anciennes.get(cle);
+        if (position == null) {
+            return null;
+        }
+        try {
+            return Entree.lire(index.duplicate().position(position));
+        } catch (BufferUnderflowException | IllegalArgumentException | NegativeArraySizeException e) {
+            // Entrée corrompue : le fichier est simplement réanalysé
+            return null;
+        }
+    }
+
+    private String cle(File fichier) {
+        Path chemin = fichier.toPath().toAbsolutePath().normalize();
+        return chemin.startsWith(racine) ? racine.relativize(chemin).toString() : chemin.toString();
+    }
+
+    private static void ecrireTexte(DataOutputStream sortie, String texte) throws IOException {
+        byte[] octets = texte.getBytes(StandardCharsets.UTF_8);
+        sortie.writeInt(octets.length);
+        sortie.write(octets);
+    }
+
+    private static String lireTexte(ByteBuffer tampon) {
+        byte[] octets = new byte[tampon.getInt()];
+        tampon.get(octets);
+        return new String(octets, StandardCharsets.UTF_8);
+    }
+
+    // Un texte absent (null) est écrit avec la longueur -1
+    private static void ecrireTexteFacultatif(DataOutputStream sortie, String texte) throws IOException {
+        if (texte == null) {
+            sortie.writeInt(-1);
+        } else {
+            ecrireTexte(sortie, texte);
+        }
+    }
+
+    private static String lireTexteFacultatif(ByteBuffer tampon) {
+        if (tampon.getInt(tampon.position()) < 0) {
+            tampon.getInt();
+            return null;
+        }
+        return lireTexte(tampon);
+    }
+
+    /**
+     * Entree de l'index : cle de validite et resultat memorise d'un fichier.
+     */
+    private static class Entree {
+        final long taille;
+        final long date;
+        final long empreinte;
+        final boolean shebangPresent;
+        final int nbFonctions;
+        final int nbFonctionsPydoc;
+        final int nbFonctionsAnnotees;
+        final List<String> fonctionsAnnotees;
+        final List<ResultatFonction> fonctions;
+        final List<Constat> constats;
+
+        Entree(long taille, long date, ResultatFichier resultat) {
+            this(taille, date, resultat.getEmpreinte(), resultat.isShebangPresent(), resultat.getNbFonctions(),
+                    resultat.getNbFonctionsPydoc(), resultat.getNbFonctionsAnnotees(), resultat.getFonctionsAnnotees(),
+                    resultat.getFonctions(), resultat.getConstats());
+        }
+
+        Entree(long taille, long date, long empreinte, boolean shebangPresent, int nbFonctions, int nbFonctionsPydoc,
+                int nbFonctionsAnnotees, List<String> fonctionsAnnotees, List<ResultatFonction> fonctions,
+                List<Constat> constats) {
+            this.taille = taille;
+            this.date = date;
+            this.empreinte = empreinte;
+            this.shebangPresent = shebangPresent;
+            this.nbFonctions = nbFonctions;
+            this.nbFonctionsPydoc = nbFonctionsPydoc;
+            this.nbFonctionsAnnotees = nbFonctionsAnnotees;
+            this.fonctionsAnnotees = fonctionsAnnotees;
+            this.fonctions = fonctions;
+            this.constats = constats;
+        }
+
+        Entree avecDate(long nouvelleDate) {
+            return new Entree(taille, nouvelleDate, empreinte, shebangPresent, nbFonctions, nbFonctionsPydoc,
+                    nbFonctionsAnnotees, fonctionsAnnotees, fonctions, constats);
+        }
+
+        ResultatFichier resultat(File fichier) {
+            ResultatFichier resultat = new ResultatFichier(fichier.getAbsolutePath(), fichier.getName());
+            resultat.empreinte = empreinte;
+            resultat.shebangPresent = shebangPresent;
+            resultat.nbFonctions = nbFonctions;
+            resultat.nbFonctionsPydoc = nbFonctionsPydoc;
+            resultat.nbFonctionsAnnotees = nbFonctionsAnnotees;
+            resultat.fonctionsAnnotees.addAll(fonctionsAnnotees);
+            resultat.fonctions.addAll(fonctions);
+            resultat.constats.addAll(constats);
+            return resultat;
+        }
+
+        void ecrire(DataOutputStream sortie) throws IOException {
+            sortie.writeLong(taille);
+            sortie.writeLong(date);
+            sortie.writeLong(empreinte);
+            sortie.writeBoolean(shebangPresent);
+            sortie.writeInt(nbFonctions);
+            sortie.writeInt(nbFonctionsPydoc);
+            sortie.writeInt(nbFonctionsAnnotees);
+            sortie.writeInt(fonctionsAnnotees.size());
+            for (String fonction : fonctionsAnnotees) {
+                ecrireTexte(sortie, fonction);
+            }
+            sortie.writeInt(fonctions.size());
+            for (ResultatFonction fonction : fonctions) {
+                ecrireTexte(sortie, fonction.getNom());
+                sortie.writeInt(fonction.getLigne());
+                sortie.writeInt(fonction.getLigneFin());
+                sortie.writeBoolean(fonction.hasPydoc());
+                sortie.writeBoolean(fonction.isAnnotee());
+                ecrireTexteFacultatif(sortie, fonction.getAnnotationRetour());
+                sortie.writeInt(fonction.getParametres().size());
+                for (ResultatFonction.Parametre parametre : fonction.getParametres()) {
+                    ecrireTexte(sortie, parametre.getNom());
+                    ecrireTexteFacultatif(sortie, parametre.getAnnotation());
+                }
+            }
+            sortie.writeInt(constats.size());
+            for (Constat constat : constats) {
+                ecrireTexte(sortie, constat.getRegle());
+                sortie.writeInt(constat.getLigne());
+                sortie.writeInt(constat.getColonne());
+                ecrireTexte(sortie, constat.getMessage());
+            }
+        }
+
+        static Entree lire(ByteBuffer tampon) {
+            long taille = tampon.getLong();
+            long date = tampon.getLong();
+            long empreinte = tampon.getLong();
+            boolean shebangPresent = tampon.get() != 0;
+            int nbFonctions = tampon.getInt();
+            int nbFonctionsPydoc = tampon.getInt();
+            int nbFonctionsAnnotees = tampon.getInt();
+            int nombre = tampon.getInt();
+            List<String> fonctionsAnnotees = new ArrayList<>(nombre);
+            for (int i = 0; i < nombre; i++) {
+                fonctionsAnnotees.add(lireTexte(tampon));
+            }
+            nombre = tampon.getInt();
+            List<ResultatFonction> fonctions = new ArrayList<>(nombre);
+            for (int i = 0; i < nombre; i++) {
+                ResultatFonction fonction = new ResultatFonction(lireTexte(tampon), tampon.getInt());
+                fonction.ligneFin = tampon.getInt();
+                fonction.pydoc = tampon.get() != 0;
+                fonction.annotee = tampon.get() != 0;
+                fonction.annotationRetour = lireTexteFacultatif(tampon);
+                int nbParametres = tampon.getInt();
+                for (int p = 0; p < nbParametres; p++) {
+                    fonction.parametres.add(new ResultatFonction.Parametre(lireTexte(tampon), lireTexteFacultatif(tampon)));
+                }
+                fonctions.add(fonction);
+            }
+            nombre = tampon.getInt();
+            List<Constat> constats = new ArrayList<>(nombre);
+            for (int i = 0; i < nombre; i++) {
+                constats.add(new Constat(lireTexte(tampon), tampon.getInt(), tampon.getInt(), lireTexte(tampon)));
+            }
+            return new Entree(taille, date, empreinte, shebangPresent, nbFonctions, nbFonctionsPydoc,
+                    nbFonctionsAnnotees, fonctionsAnnotees, fonctions, constats);
+        }
+    }
+}
@@ -0,0 +1,58 @@
+package outil;
+
+/**
+ * La classe Constat decrit un probleme signale par une regle sur une ligne d'un fichier Python.
+ *
+ *
+ * @author CHEBALLAH Jawed
+ * @author FWALA Yvon
+ */
+public class Constat {
+    private final String regle;
+    private final int ligne;
+    private final int colonne;
+    private final String message;
+
+    /**
+     * Constructeur de la classe Constat.
+     *
+     * @param regle   L'identifiant de la regle qui signale le probleme.
+     * @param ligne   Le numero de la ligne, a partir de 1.
+     * @param colonne La colonne du probleme, a partir de 1.
+     * @param message La description du probleme.
+     */
+    public Constat(String regle, int ligne, int colonne, String message) {
+        this.regle = regle;
+        this.ligne = ligne;
+        this.colonne = colonne;
+        this.message = message;
+    }
+
+    /**
+     * @return L'identifiant de la regle qui signale le probleme.
+     */
+    public String getRegle() {
+        return regle;
+    }
+
+    /**
+     * @return Le numero de la ligne, a partir de 1.
+     */
+    public int getLigne() {
+        return ligne;
+    }
+
+    /**
+     * @return La colonne du probleme, a partir de 1.
+     */
+    public int getColonne() {
+        return colonne;
+    }
+
+    /**
+     * @return La description du probleme.
+     */
+    public String getMessage() {
+        return message;
+    }
+}
@@ -0,0 +1,151 @@
+package outil;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Path;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * La classe CorrectionArborescence applique un PipelineCorrection a tous les fichiers Python (.py) d'une
+ * arborescence, en parallele. Comme pour ParcoursArborescence, le compte rendu de chaque fichier est ecrit dans
+ * l'ordre du parcours sequentiel et seule une fenetre bornee de corrections en cours est conservee. Les
+ * sous-arborescences ignorees par le FiltreIgnores (environnements virtuels, dependances...) ne sont pas corrigees.
+ * Un fichier atteint par plusieurs chemins (liens symboliques ou physiques) n'est corrige qu'une fois.
+ *
+ *
+ * @author CHEBALLAH Jawed
+ * @author FWALA Yvon
+ */
+public class CorrectionArborescence {
+    /** Nombre de corrections en attente autorisees par thread avant d'ecrire le compte rendu le plus ancien. */
+    private static final int TACHES_PAR_THREAD = 4;
+
+    private final int parallelisme;
+    private final PipelineCorrection pipeline;
+    private final FiltreIgnores filtre;
+    private int nbFichiers;
+    private final AtomicInteger nbModifies = new AtomicInteger();
+
+    /**
+     * Constructeur de la classe CorrectionArborescence.
+     *
+     * @param parallelisme Le nombre de threads utilises pour les corrections.
+     * @param pipeline     Les corrections a appliquer a chaque fichier.
+     */
+    public CorrectionArborescence(int parallelisme, PipelineCorrection pipeline) {
+        this(parallelisme, pipeline, FiltreIgnores.parDefaut());
+    }
+
+    /**
+     * Constructeur de la classe CorrectionArborescence avec des regles d'exclusion specifiques.
+     *
+     * @param parallelisme Le nombre de threads utilises pour les corrections.
+     * @param pipeline     Les corrections a appliquer a chaque fichier.
+     * @param filtre       Les dossiers et fichiers a ne pas corriger.
+     */
+    public CorrectionArborescence(int parallelisme, PipelineCorrection pipeline, FiltreIgnores filtre) {
+        if (parallelisme < 1) {
+            throw new IllegalArgumentException("Le nombre de threads doit etre superieur ou egal a 1 : " + parallelisme);
+        }
+        this.parallelisme = parallelisme;
+        this.pipeline = pipeline;
+        this.filtre = filtre;
+    }
+
+    /**
+     * Corrige tous les fichiers Python du dossier specifie et de ses sous-dossiers, puis ecrit le bilan.
+     *
+     * @param dossier Le dossier a corriger.
+     * @param sortie  Le flux dans lequel ecrire le compte rendu de chaque fichier.
+     * @throws IOException Si l'ecriture du compte rendu echoue.
+     */
+    public void corriger(File dossier, Writer sortie) throws IOException {
+        ForkJoinPool pool = new ForkJoinPool(parallelisme);
+        Deque<ForkJoinTask<String>> fenetre = new ArrayDeque<>();
+        Set<Object> vus = new HashSet<>();
+        nbFichiers = 0;
+        nbModifies.set(0);
+
+        try {
+            filtre.parcourir(dossier.toPath(), new SimpleFileVisitor<Path>() {
+                @Override
+                public FileVisitResult visitFile(Path chemin, BasicFileAttributes attributs) throws IOException {
+                    if (chemin.getFileName().toString().endsWith(".py") && vus.add(identite(chemin, attributs))) {
+                        File fichier = chemin.toFile();
+                        fenetre.addLast(pool.submit(() -> corrigerFichier(fichier)));
+                        nbFichiers++;
+                        while (fenetre.size() > parallelisme * TACHES_PAR_THREAD) {
+                            ecrire(fenetre.removeFirst(), sortie);
+                        }
+                    }
+                    return FileVisitResult.CONTINUE;
+                }
+
+                @Override
+                public FileVisitResult visitFileFailed(Path chemin, IOException e) {
+                    return FileVisitResult.CONTINUE;
+                }
+            });
+            while (!fenetre.isEmpty()) {
+                ecrire(fenetre.removeFirst(), sortie);
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+
+        if (nbFichiers == 0) {
+            sortie.write("Aucun fichier Python trouvé dans le dossier '" + dossier.getPath() + "'.\n");
+        } else {
+            sortie.write("\t " + nbModifies.get() + " fichier(s) modifié(s) sur " + nbFichiers + ".\n");
+        }
+        sortie.flush();
+    }
+
+    // Identité du fichier : son inode quand le système le donne, sinon son chemin réel
+    private static Object identite(Path chemin, BasicFileAttributes attributs) {
+        if (attributs.fileKey() != null) {
+            return attributs.fileKey();
+        }
+        try {
+            return chemin.toRealPath();
+        } catch (IOException e) {
+            return chemin.toAbsolutePath().normalize();
+        }
+    }
+
+    private void ecrire(ForkJoinTask<String> correction, Writer sortie) throws IOException {
+        // Rend visible ce qui est deja pret avant d'attendre la prochaine correction
+        if (!correction.isDone()) {
+            sortie.flush();
+        }
+        sortie.write(correction.join());
+    }
+
+    private String corrigerFichier(File fichier) {
+        StringBuilder result = new StringBuilder("Correction du fichier " + fichier.getName() + " :\n");
+
+        try {
+            PipelineCorrection.Bilan bilan = pipeline.corriger(fichier);
+            result.append(bilan.getMessageShebang()).append(bilan.getMessageCommentaires());
+            if (bilan.estModifie()) {
+                nbModifies.incrementAndGet();
+            } else {
+                result.append("\t Aucune modification.\n");
+            }
+        } catch (IOException e) {
+            result.append("\t Erreur lors de la correction du fichier ").append(fichier.getName()).append(": ").append(e.getMessage()).append("\n");
+        }
+
+        return result.append("\n").toString();
+    }
+}
@@ -0,0 +1,63 @@
+package outil;
+
+import java.io.File;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * La classe CumulConcurrent cumule les resultats d'analyse de fichiers Python depuis plusieurs threads a la fois,
+ * dans des compteurs 64 bits repartis (LongAdder) : chaque thread incremente sa propre cellule sans verrou ni
+ * contention, et les cellules ne sont additionnees qu'a la lecture. La memoire utilisee ne depend pas du nombre
+ * de fichiers cumules.
+ *
+ *
+ * @author CHEBALLAH Jawed
+ * @author FWALA Yvon
+ */
+public class CumulConcurrent {
+    private final LongAdder nbTotalFichiers = new LongAdder();
+    private final LongAdder nbShebang = new LongAdder();
+    private final LongAdder nbStatPydoc = new LongAdder();
+    private final LongAdder nbStatType = new LongAdder();
+    private final LongAdder nbFonctionTotal = new LongAdder();
+
+    /**
+     * Constructeur par defaut de la classe CumulConcurrent.
+     */
+    public CumulConcurrent() {
+    }
+
+    /**
+     * Ajoute le resultat d'un fichier au cumul ; peut etre appele par plusieurs threads en meme temps.
+     *
+     * @param resultat Le resultat de l'analyse du fichier.
+     */
+    public void ajouter(ResultatFichier resultat) {
+        nbTotalFichiers.increment();
+        if (resultat.isShebangPresent()) {
+            nbShebang.increment();
+        }
+        nbStatPydoc.add(resultat.getNbFonctionsPydoc());
+        nbStatType.add(resultat.getNbFonctionsAnnotees());
+        nbFonctionTotal.add(resultat.getNbFonctions());
+    }
+
+    /**
+     * Additionne les compteurs de tous les threads. Le resultat n'est exact que si aucun ajout n'est en cours.
+     *
+     * @return Le cumul de tous les resultats ajoutes.
+     */
+    public CumulStatistique total() {
+        return new CumulStatistique(nbTotalFichiers.sum(), nbShebang.sum(), nbStatPydoc.sum(), nbStatType.sum(),
+                nbFonctionTotal.sum());
+    }
+
+    /**
+     * Produit le rapport de statistiques, au format de Statistique.statRepertoire.
+     *
+     * @param repertoire Le repertoire sur lequel portent les statistiques.
+     * @return Les statistiques sous forme de chaîne de caracteres.
+     */
+    public String rapport(File repertoire) {
+        return total().rapport(repertoire);
+    }
+}
@@ -0,0 +1,174 @@
+package outil;
+
+import java.io.File;
+
+/**
+ * La classe CumulStatistique cumule, dans des compteurs primitifs, les resultats d'analyse deja calcules pour
+ * un ensemble de fichiers Python, sans relire aucun fichier. Plusieurs cumuls partiels (un par thread par
+ * exemple) peuvent etre fusionnes avant de produire le rapport de statistiques ; pour des ajouts simultanes
+ * depuis plusieurs threads, voir CumulConcurrent.
+ *
+ *
+ * @author CHEBALLAH Jawed
+ * @author FWALA Yvon
+ */
+public class CumulStatistique {
+    private long nbTotalFichiers;
+    private long nbShebang;
+    private long nbStatPydoc;
+    private long nbStatType;
+    private long nbFonctionTotal;
+
+    /**
+     * Constructeur par defaut de la classe CumulStatistique.
+     */
+    public CumulStatistique() {
+    }
+
+    /**
+     * Constructeur d'un cumul a partir de totaux deja calcules (par un CumulConcurrent par exemple).
+     */
+    CumulStatistique(long nbTotalFichiers, long nbShebang, long nbStatPydoc, long nbStatType, long nbFonctionTotal) {
+        this.nbTotalFichiers = nbTotalFichiers;
+        this.nbShebang = nbShebang;
+        this.nbStatPydoc = nbStatPydoc;
+        this.nbStatType = nbStatType;
+        this.nbFonctionTotal = nbFonctionTotal;
+    }
+
+    /**
+     * Ajoute le resultat d'un fichier au cumul.
+     *
+     * @param resultat Le resultat de l'analyse du fichier.
+     */
+    public void ajouter(ResultatFichier resultat) {
+        nbTotalFichiers++;
+        if (resultat.isShebangPresent()) {
+            nbShebang++;
+        }
+        nbStatPydoc += resultat.getNbFonctionsPydoc();
+        nbStatType += resultat.getNbFonctionsAnnotees();
+        nbFonctionTotal += resultat.getNbFonctions();
+    }
+
+    /**
+     * Retire du cumul le resultat d'un fichier ajoute auparavant (fichier modifie ou supprime).
+     *
+     * @param resultat Le resultat a retirer.
+     */
+    public void retirer(ResultatFichier resultat) {
+        nbTotalFichiers--;
+        if (resultat.isShebangPresent()) {
+            nbShebang--;
+        }
+        nbStatPydoc -= resultat.getNbFonctionsPydoc();
+        nbStatType -= resultat.getNbFonctionsAnnotees();
+        nbFonctionTotal -= resultat.getNbFonctions();
+    }
+
+    /**
+     * Remet tous les compteurs a zero.
+     */
+    public void vider() {
+        nbTotalFichiers = 0;
+        nbShebang = 0;
+        nbStatPydoc = 0;
+        nbStatType = 0;
+        nbFonctionTotal = 0;
+    }
+
+    /**
+     * Ajoute un cumul partiel a ce cumul.
+     *
+     * @param autre Le cumul partiel a fusionner.
+     */
+    public void fusionner(CumulStatistique autre) {
+        nbTotalFichiers += autre.nbTotalFichiers;
+        nbShebang += autre.nbShebang;
+        nbStatPydoc += autre.nbStatPydoc;
+        nbStatType += autre.nbStatType;
+        nbFonctionTotal += autre.nbFonctionTotal;
+    }
+
+    /**
+     * @return Le nombre de fichiers cumules.
+     */
+    public long getNbTotalFichiers() {
+        return nbTotalFichiers;
+    }
+
+    /**
+     * @return Le nombre de fichiers avec un shebang.
+     */
+    public long getNbShebang() {
+        return nbShebang;
+    }
+
+    /**
+     * @return Le nombre de fonctions avec des commentaires pydoc.
+     */
+    public long getNbStatPydoc() {
+        return nbStatPydoc;
+    }
+
+    /**
+     * @return Le nombre de fonctions avec des annotations de type.
+     */
+    public long getNbStatType() {
+        return nbStatType;
+    }
+
+    /**
+     * @return Le nombre total de fonctions.
+     */
+    public long getNbFonctionTotal() {
+        return nbFonctionTotal;
+    }
+
+    /**
+     * @return Le pourcentage de fichiers avec un shebang, 0 sans fichier.
+     */
+    public double getCouvertureShebang() {
+        return nbTotalFichiers > 0 ? (double) nbShebang / nbTotalFichiers * 100 : 0;
+    }
+
+    /**
+     * @return Le pourcentage de fonctions avec des commentaires pydoc, 100 sans fonction.
+     */
+    public double getCouverturePydoc() {
+        return nbFonctionTotal > 0 ? (double) nbStatPydoc / nbFonctionTotal * 100 : 100;
+    }
+
+    /**
+     * @return Le pourcentage de fonctions avec des annotations de type, 100 sans fonction.
+     */
+    public double getCouvertureType() {
+        return nbFonctionTotal > 0 ? (double) nbStatType / nbFonctionTotal * 100 : 100;
+    }
+
+    /**
+     * Produit le rapport de statistiques, au format de Statistique.statRepertoire.
+     *
+     * @param repertoire Le repertoire sur lequel portent les statistiques.
+     * @return Les statistiques sous forme de chaîne de caracteres.
+     */
+    public String rapport(File repertoire) {
+        StringBuilder result = new StringBuilder();
+
+        if (nbTotalFichiers > 0) {
+            // Calcul des pourcentages
+            double pourcentageShebang = ((double) nbShebang / nbTotalFichiers) * 100;
+            double pourcentagePydoc = (nbFonctionTotal > 0) ? ((double) nbStatPydoc / (nbTotalFichiers * nbFonctionTotal)) * 100 : 0;
+            double pourcentageType = (nbFonctionTotal > 0) ? ((double) nbStatType / (nbTotalFichiers * nbFonctionTotal)) * 100 : 0;
+
+            result.append("Statistiques sur le répertoire :\n");
+            result.append("Pourcentage de fichiers avec shebang : ").append(pourcentageShebang).append("%\n");
+            result.append("Pourcentage de fichiers avec pydoc : ").append(pourcentagePydoc).append("%\n");
+            result.append("Pourcentage de fichiers avec annotations de type : ").append(pourcentageType).append("%\n");
+        } else {
+            result.append("Aucun fichier Python trouvé dans le répertoire ").append(repertoire).append(".\n");
+        }
+
+        return result.toString();
+    }
+}
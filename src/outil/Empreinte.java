@@ -0,0 +1,96 @@
+package outil;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.IOException;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteOrder;
+
+/**
+ * La classe Empreinte calcule une empreinte rapide (FNV-1a sur 64 bits, non cryptographique) du contenu d'un
+ * fichier Python, ligne par ligne. Deux fichiers dont les lignes sont identiques ont la meme empreinte, quelle
+ * que soit leur fin de ligne, ce qui suffit puisque toutes les verifications travaillent ligne par ligne.
+ *
+ * <p>L'empreinte des octets bruts (methode octets), utilisee pour reconnaitre les fichiers identiques avant toute
+ * analyse, lit le contenu 8 octets a la fois.
+ *
+ *
+ * @author CHEBALLAH Jawed
+ * @author FWALA Yvon
+ */
+final class Empreinte {
+    /** Valeur initiale de l'empreinte d'un contenu vide. */
+    static final long DEBUT = 0xcbf29ce484222325L;
+    private static final long PREMIER = 0x100000001b3L;
+    // Constantes de mélange de xxHash64
+    private static final long MELANGE1 = 0x9E3779B185EBCA87L;
+    private static final long MELANGE2 = 0xC2B2AE3D27D4EB4FL;
+    private static final long MELANGE3 = 0x165667B19E3779F9L;
+    private static final VarHandle MOTS = MethodHandles.byteArrayViewVarHandle(long[].class, ByteOrder.LITTLE_ENDIAN);
+
+    private Empreinte() {
+    }
+
+    /**
+     * Ajoute une ligne a l'empreinte.
+     *
+     * @param empreinte L'empreinte des lignes precedentes.
+     * @param ligne     La ligne lue, sans son caractere de fin de ligne.
+     * @return L'empreinte mise a jour.
+     */
+    static long ajouter(long empreinte, CharSequence ligne) {
+        long h = empreinte;
+        for (int i = 0; i < ligne.length(); i++) {
+            char c = ligne.charAt(i);
+            h = (h ^ (c & 0xff)) * PREMIER;
+            h = (h ^ (c >>> 8)) * PREMIER;
+        }
+        return (h ^ '\n') * PREMIER;
+    }
+
+    /**
+     * Calcule une empreinte de 64 bits des octets d'un contenu, longueur comprise. Deux contenus de meme empreinte
+     * sont consideres comme identiques : une collision accidentelle est de l'ordre d'une chance sur 2^64.
+     *
+     * @param contenu Les octets du contenu.
+     * @return L'empreinte du contenu.
+     */
+    static long octets(byte[] contenu) {
+        long h = MELANGE3 + contenu.length * MELANGE1;
+        int i = 0;
+        for (; i + 8 <= contenu.length; i += 8) {
+            long mot = (long) MOTS.get(contenu, i) * MELANGE2;
+            h ^= Long.rotateLeft(mot, 31) * MELANGE1;
+            h = Long.rotateLeft(h, 27) * MELANGE1 + MELANGE3;
+        }
+        for (; i < contenu.length; i++) {
+            h ^= (contenu[i] & 0xff) * MELANGE3;
+            h = Long.rotateLeft(h, 11) * MELANGE1;
+        }
+        // Diffusion finale : chaque bit du contenu influe sur tous les bits de l'empreinte
+        h ^= h >>> 33;
+        h *= MELANGE2;
+        h ^= h >>> 29;
+        h *= MELANGE3;
+        return h ^ (h >>> 32);
+    }
+
+    /**
+     * Calcule l'empreinte d'un fichier en le decodant comme le fait MoteurAnalyse (voir LecturePython).
+     *
+     * @param fichier Le fichier a lire.
+     * @return L'empreinte du contenu du fichier.
+     * @throws IOException Si une exception d'entree/sortie se produit.
+     */
+    static long calculer(File fichier) throws IOException {
+        long empreinte = DEBUT;
+        try (BufferedReader br = LecturePython.ouvrir(fichier)) {
+            String ligne;
+            while ((ligne = br.readLine()) != null) {
+                empreinte = ajouter(empreinte, ligne);
+            }
+        }
+        return empreinte;
+    }
+}
@@ -0,0 +1,51 @@
+package outil;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.Timespan;
+
+/**
+ * Evenement JDK Flight Recorder emis pour chaque fichier analyse avec l'option --metrics. Sa duree couvre toute
+ * l'analyse du fichier, lecture comprise.
+ *
+ *
+ * @author CHEBALLAH Jawed
+ * @author FWALA Yvon
+ */
+@Name("japybeautify.AnalyseFichier")
+@Label("Analyse d'un fichier Python")
+@Category("JapyBeautify")
+@Description("Lecture et verifications d'un fichier Python")
+final class EvenementAnalyseFichier extends Event {
+    @Label("Chemin")
+    String chemin;
+
+    @Label("Octets lus")
+    @DataAmount
+    long octets;
+
+    @Label("Lignes lues")
+    long lignes;
+
+    @Label("Regles ligne par ligne")
+    @Timespan
+    long dureeRegles;
+
+    @Label("Fonctions, pydoc et annotations")
+    @Timespan
+    long dureeFonctions;
+
+    @Label("Temps CPU")
+    @Timespan
+    long tempsCpu;
+
+    @Label("Repris du cache")
+    boolean depuisCache;
+
+    @Label("Identique a un fichier deja analyse")
+    boolean doublon;
+}
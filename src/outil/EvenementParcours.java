@@ -0,0 +1,40 @@
+package outil;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.Timespan;
+
+/**
+ * Evenement JDK Flight Recorder emis a la fin d'un parcours avec l'option --metrics. Sa duree couvre tout le
+ * parcours.
+ *
+ *
+ * @author CHEBALLAH Jawed
+ * @author FWALA Yvon
+ */
+@Name("japybeautify.Parcours")
+@Label("Parcours d'une arborescence")
+@Category("JapyBeautify")
+@Description("Analyse de tous les fichiers Python d'un dossier")
+final class EvenementParcours extends Event {
+    @Label("Fichiers analyses")
+    long nbFichiers;
+
+    @Label("Fichiers repris du cache")
+    long nbFichiersCache;
+
+    @Label("Octets lus")
+    @DataAmount
+    long octets;
+
+    @Label("Lignes lues")
+    long lignes;
+
+    @Label("Temps CPU du processus")
+    @Timespan
+    long tempsCpu;
+}
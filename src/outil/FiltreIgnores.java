@@ -0,0 +1,366 @@
+package outil;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.FileSystemLoopException;
+import java.nio.file.FileVisitOption;
+import java.nio.file.FileVisitResult;
+import java.nio.file.FileVisitor;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.regex.Pattern;
+
+/**
+ * La classe FiltreIgnores decouvre les fichiers d'une arborescence avec Files.walkFileTree en elaguant les
+ * sous-arborescences ignorees : dossiers de la liste par defaut (.git, environnements virtuels, node_modules,
+ * __pycache__, site-packages...), motifs donnes en ligne de commande et motifs des fichiers .gitignore rencontres.
+ * Un dossier ignore n'est jamais ouvert. Les liens symboliques sont suivis, mais un lien qui reboucle sur un de
+ * ses dossiers parents est saute.
+ *
+ * <p>Les motifs suivent la syntaxe de .gitignore : # commentaire, ! negation, / final pour un dossier seulement,
+ * / initial ou interieur pour un motif ancre sur le dossier du .gitignore, *, ?, [abc] et **. Comme pour git, la
+ * derniere regle qui correspond l'emporte, les regles d'un .gitignore plus profond passant apres celles de ses
+ * parents.
+ *
+ *
+ * @author CHEBALLAH Jawed
+ * @author FWALA Yvon
+ */
+public class FiltreIgnores {
+    /** Dossiers ignores par defaut : gestion de versions, environnements virtuels, dependances et caches. */
+    public static final List<String> MOTIFS_PAR_DEFAUT = List.of(
+            ".git/", ".hg/", ".svn/", "venv/", ".venv/", ".tox/", ".nox/", "node_modules/", "site-packages/",
+            "__pycache__/", ".mypy_cache/", ".pytest_cache/", ".eggs/");
+    /** Fichier de regles lu dans chaque dossier parcouru. */
+    public static final String GITIGNORE = ".gitignore";
+    /** Fichier present a la racine de tout environnement virtuel Python, quel que soit son nom. */
+    private static final String PYVENV = "pyvenv.cfg";
+
+    private final List<Regle> regles;
+    private final boolean parDefaut;
+    private final boolean gitignore;
+
+    /**
+     * Constructeur de la classe FiltreIgnores.
+     *
+     * @param motifs    Des motifs supplementaires, ancres sur la racine parcourue.
+     * @param parDefaut true pour ignorer les dossiers de MOTIFS_PAR_DEFAUT et les environnements virtuels.
+     * @param gitignore true pour appliquer les fichiers .gitignore de l'arborescence.
+     */
+    public FiltreIgnores(List<String> motifs, boolean parDefaut, boolean gitignore) {
+        List<String> toutes = new ArrayList<>();
+        // Le dossier du cache d'analyse n'est jamais parcouru
+        toutes.add(CacheAnalyse.DOSSIER + "/");
+        if (parDefaut) {
+            toutes.addAll(MOTIFS_PAR_DEFAUT);
+        }
+        toutes.addAll(motifs);
+        this.regles = compiler(toutes);
+        this.parDefaut = parDefaut;
+        this.gitignore = gitignore;
+    }
+
+    /**
+     * Donne le filtre par defaut : dossiers par defaut, environnements virtuels et fichiers .gitignore.
+     *
+     * @return Le filtre par defaut.
+     */
+    public static FiltreIgnores parDefaut() {
+        return new FiltreIgnores(Collections.emptyList(), true, true);
+    }
+
+    /**
+     * Parcourt l'arborescence de la racine en profondeur, dans l'ordre des dossiers, et ne presente au visiteur
+     * que les dossiers et fichiers qui ne sont pas ignores. La racine elle-meme n'est jamais ignoree.
+     *
+     * @param racine   Le dossier a parcourir.
+     * @param visiteur Le visiteur des dossiers et fichiers retenus.
+     * @throws IOException Si le visiteur leve une exception.
+     */
+    public void parcourir(Path racine, FileVisitor<Path> visiteur) throws IOException {
+        Files.walkFileTree(racine, EnumSet.of(FileVisitOption.FOLLOW_LINKS), Integer.MAX_VALUE, new Visiteur(racine, visiteur));
+    }
+
+    /**
+     * Indique si un chemin de l'arborescence est ignore, lui-meme ou par l'un de ses dossiers parents. Sert aux
+     * chemins signales un par un (surveillance des modifications) ; un parcours utilise plutot parcourir.
+     *
+     * @param racine  La racine de l'arborescence.
+     * @param chemin  Le chemin a tester, dans la racine.
+     * @param dossier true si le chemin est un dossier.
+     * @return true si le chemin est ignore.
+     */
+    public boolean estIgnore(Path racine, Path chemin, boolean dossier) {
+        if (!chemin.startsWith(racine) || chemin.equals(racine)) {
+            return false;
+        }
+        Deque<Niveau> niveaux = new ArrayDeque<>();
+        niveaux.addLast(new Niveau(racine, regles));
+        Path courant = racine;
+        for (Path nom : racine.relativize(chemin)) {
+            // Les règles du .gitignore d'un dossier s'appliquent à son contenu
+            niveaux.addLast(new Niveau(courant, lireGitignore(courant)));
+            Path suivant = courant.resolve(nom);
+            if (ignore(niveaux, suivant, !suivant.equals(chemin) || dossier)) {
+                return true;
+            }
+            courant = suivant;
+        }
+        return false;
+    }
+
+    private boolean ignore(Deque<Niveau> niveaux, Path chemin, boolean dossier) {
+        String nom = chemin.getFileName().toString();
+        if (dossier && parDefaut && Files.isRegularFile(chemin.resolve(PYVENV))) {
+            return true;
+        }
+        boolean ignore = false;
+        for (Niveau niveau : niveaux) {
+            String relatif = null;
+            for (Regle regle : niveau.regles) {
+                if (regle.dossierSeulement && !dossier) {
+                    continue;
+                }
+                boolean correspond;
+                if (regle.surNom) {
+                    correspond = regle.correspond(nom);
+                } else {
+                    if (relatif == null) {
+                        relatif = relatif(niveau.dossier, chemin);
+                    }
+                    correspond = regle.correspond(relatif);
+                }
+                if (correspond) {
+                    ignore = !regle.negation;
+                }
+            }
+        }
+        return ignore;
+    }
+
+    private List<Regle> lireGitignore(Path dossier) {
+        if (!gitignore) {
+            return Collections.emptyList();
+        }
+        Path fichier = dossier.resolve(GITIGNORE);
+        if (!Files.isRegularFile(fichier)) {
+            return Collections.emptyList();
+        }
+        try {
+            return compiler(Files.readAllLines(fichier, StandardCharsets.UTF_8));
+        } catch (IOException e) {
+            // .gitignore illisible : aucune règle
+            return Collections.emptyList();
+        }
+    }
+
+    private static String relatif(Path base, Path chemin) {
+        String relatif = base.relativize(chemin).toString();
+        return chemin.getFileSystem().getSeparator().equals("/") ? relatif : relatif.replace(chemin.getFileSystem().getSeparator(), "/");
+    }
+
+    private static List<Regle> compiler(List<String> lignes) {
+        List<Regle> compilees = new ArrayList<>();
+        for (String ligne : lignes) {
+            Regle regle = Regle.compiler(ligne);
+            if (regle != null) {
+                compilees.add(regle);
+            }
+        }
+        return compilees;
+    }
+
+    /**
+     * Regles d'un dossier : celles de son .gitignore, ou celles du filtre pour la racine.
+     */
+    private static final class Niveau {
+        final Path dossier;
+        final List<Regle> regles;
+
+        Niveau(Path dossier, List<Regle> regles) {
+            this.dossier = dossier;
+            this.regles = regles;
+        }
+    }
+
+    /**
+     * Visiteur qui elague les dossiers ignores et tient la pile des .gitignore des dossiers en cours.
+     */
+    private final class Visiteur implements FileVisitor<Path> {
+        private final Path racine;
+        private final FileVisitor<Path> suivant;
+        private final Deque<Niveau> niveaux = new ArrayDeque<>();
+
+        Visiteur(Path racine, FileVisitor<Path> suivant) {
+            this.racine = racine;
+            this.suivant = suivant;
+            niveaux.addLast(new Niveau(racine, regles));
+        }
+
+        @Override
+        public FileVisitResult preVisitDirectory(Path dossier, BasicFileAttributes attributs) throws IOException {
+            if (!dossier.equals(racine) && ignore(niveaux, dossier, true)) {
+                return FileVisitResult.SKIP_SUBTREE;
+            }
+            FileVisitResult resultat = suivant.preVisitDirectory(dossier, attributs);
+            if (resultat == FileVisitResult.CONTINUE) {
+                niveaux.addLast(new Niveau(dossier, lireGitignore(dossier)));
+            }
+            return resultat;
+        }
+
+        @Override
+        public FileVisitResult visitFile(Path fichier, BasicFileAttributes attributs) throws IOException {
+            if (ignore(niveaux, fichier, attributs.isDirectory())) {
+                return FileVisitResult.CONTINUE;
+            }
+            return suivant.visitFile(fichier, attributs);
+        }
+
+        @Override
+        public FileVisitResult visitFileFailed(Path fichier, IOException e) throws IOException {
+            // Lien symbolique vers un dossier parent : la boucle est coupée
+            if (e instanceof FileSystemLoopException) {
+                return FileVisitResult.CONTINUE;
+            }
+            return suivant.visitFileFailed(fichier, e);
+        }
+
+        @Override
+        public FileVisitResult postVisitDirectory(Path dossier, IOException e) throws IOException {
+            niveaux.removeLast();
+            return suivant.postVisitDirectory(dossier, e);
+        }
+    }
+
+    /**
+     * Une ligne d'un .gitignore, traduite en expression reguliere.
+     */
+    private static final class Regle {
+        final boolean negation;
+        final boolean dossierSeulement;
+        /** true si le motif ne contient pas de /, et s'applique alors au seul nom, a toute profondeur. */
+        final boolean surNom;
+        /** Le nom exact pour un motif sans caractere special, compare sans expression reguliere. */
+        final String nomExact;
+        final Pattern expression;
+
+        private Regle(boolean negation, boolean dossierSeulement, boolean surNom, String nomExact, Pattern expression) {
+            this.negation = negation;
+            this.dossierSeulement = dossierSeulement;
+            this.surNom = surNom;
+            this.nomExact = nomExact;
+            this.expression = expression;
+        }
+
+        boolean correspond(String texte) {
+            return nomExact != null ? nomExact.equals(texte) : expression.matcher(texte).matches();
+        }
+
+        /**
+         * @return La regle de la ligne, ou null pour une ligne vide ou un commentaire.
+         */
+        static Regle compiler(String ligne) {
+            String motif = supprimerEspacesFinaux(ligne);
+            if (motif.isEmpty() || motif.startsWith("#")) {
+                return null;
+            }
+            boolean negation = motif.startsWith("!");
+            if (negation) {
+                motif = motif.substring(1);
+            } else if (motif.startsWith("\\!") || motif.startsWith("\\#")) {
+                motif = motif.substring(1);
+            }
+            boolean dossierSeulement = motif.endsWith("/");
+            if (dossierSeulement) {
+                motif = motif.substring(0, motif.length() - 1);
+            }
+            if (motif.startsWith("**/") && motif.indexOf('/', 3) < 0) {
+                // "**/nom" équivaut à "nom" à toute profondeur
+                motif = motif.substring(3);
+            }
+            boolean ancre = motif.indexOf('/') >= 0;
+            if (motif.startsWith("/")) {
+                motif = motif.substring(1);
+            }
+            if (motif.isEmpty()) {
+                return null;
+            }
+
+            boolean special = false;
+            for (int i = 0; i < motif.length() && !special; i++) {
+                special = "*?[\\".indexOf(motif.charAt(i)) >= 0;
+            }
+            if (!ancre && !special) {
+                return new Regle(negation, dossierSeulement, true, motif, null);
+            }
+            return new Regle(negation, dossierSeulement, !ancre, null, Pattern.compile(traduire(motif)));
+        }
+
+        private static String supprimerEspacesFinaux(String ligne) {
+            int fin = ligne.length();
+            while (fin > 0 && ligne.charAt(fin - 1) == ' ' && !(fin > 1 && ligne.charAt(fin - 2) == '\\')) {
+                fin--;
+            }
+            return ligne.substring(0, fin);
+        }
+
+        private static String traduire(String motif) {
+            StringBuilder regex = new StringBuilder();
+            int i = 0;
+            while (i < motif.length()) {
+                char c = motif.charAt(i);
+                if (c == '*' && motif.startsWith("**", i)) {
+                    boolean debutSegment = i == 0 || motif.charAt(i - 1) == '/';
+                    if (debutSegment && motif.startsWith("**/", i)) {
+                        regex.append("(?:.*/)?");
+                        i += 3;
+                    } else {
+                        regex.append(".*");
+                        i += 2;
+                    }
+                } else if (c == '*') {
+                    regex.append("[^/]*");
+                    i++;
+                } else if (c == '?') {
+                    regex.append("[^/]");
+                    i++;
+                } else if (c == '[') {
+                    int fin = motif.indexOf(']', i + 2);
+                    if (fin < 0) {
+                        regex.append("\\[");
+                        i++;
+                    } else {
+                        String classe = motif.substring(i + 1, fin);
+                        if (classe.startsWith("!")) {
+                            classe = "^" + classe.substring(1);
+                        }
+                        regex.append('[').append(classe.replace("\\", "\\\\").replace("[", "\\[")).append(']');
+                        i = fin + 1;
+                    }
+                } else if (c == '\\' && i + 1 < motif.length()) {
+                    echapper(regex, motif.charAt(i + 1));
+                    i += 2;
+                } else {
+                    echapper(regex, c);
+                    i++;
+                }
+            }
+            return regex.toString();
+        }
+
+        private static void echapper(StringBuilder regex, char c) {
+            if ("\\.[]{}()*+-?^$|".indexOf(c) >= 0) {
+                regex.append('\\');
+            }
+            regex.append(c);
+        }
+    }
+}
@@ -0,0 +1,193 @@
+package outil;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.ServiceLoader;
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * La classe JeuRegles regroupe les regles appliquees a chaque ligne et compile tous leurs motifs dans un seul
+ * AutomateMotifs. Une ligne est parcourue une seule fois, caractere par caractere, et seules les regles dont un
+ * motif apparait sont appelees : le cout d'une ligne ne depend presque pas du nombre de regles. Lorsque tous les
+ * motifs sont des debuts de ligne (cas par defaut), le parcours s'arrete des que plus aucun ne peut correspondre.
+ *
+ * <p>Les regles disponibles sont les regles integrees (shebang, toujours active ; todo et print, sur demande) et
+ * celles fournies par d'autres modules par ServiceLoader. Le jeu courant est choisi une fois au demarrage, avant
+ * toute analyse, et partage par tous les threads.
+ *
+ *
+ * @author CHEBALLAH Jawed
+ * @author FWALA Yvon
+ */
+public final class JeuRegles {
+    private static final List<Regle> DISPONIBLES = chargerDisponibles();
+    private static volatile JeuRegles courant = new JeuRegles(Collections.emptySet());
+
+    private final List<Regle> regles = new ArrayList<>();
+    private final AutomateMotifs automate;
+    private final boolean ancre;
+    private final int signature;
+
+    // Pour chaque motif de l'automate : sa règle, son indice dans la règle, son genre et sa longueur
+    private final Regle[] regleDuMotif;
+    private final int[] indiceDansRegle;
+    private final int[] genres;
+    private final int[] longueurs;
+
+    private JeuRegles(Set<String> demandees) {
+        Set<String> inconnues = new TreeSet<>(demandees);
+        List<String> textes = new ArrayList<>();
+        List<Motif> motifs = new ArrayList<>();
+        List<Regle> proprietaires = new ArrayList<>();
+        List<Integer> indices = new ArrayList<>();
+        StringBuilder versions = new StringBuilder();
+
+        for (Regle regle : DISPONIBLES) {
+            inconnues.remove(regle.getIdentifiant());
+            if (!regle.isActiveParDefaut() && !demandees.contains(regle.getIdentifiant())) {
+                continue;
+            }
+            regles.add(regle);
+            versions.append(regle.getIdentifiant()).append(':').append(regle.getVersion()).append(',');
+            List<Motif> motifsRegle = regle.getMotifs();
+            for (int i = 0; i < motifsRegle.size(); i++) {
+                textes.add(motifsRegle.get(i).getTexte());
+                motifs.add(motifsRegle.get(i));
+                proprietaires.add(regle);
+                indices.add(i);
+            }
+        }
+        if (!inconnues.isEmpty()) {
+            throw new IllegalArgumentException("Règle inconnue " + inconnues + " (règles disponibles : " + identifiants() + ").");
+        }
+
+        automate = new AutomateMotifs(textes);
+        regleDuMotif = proprietaires.toArray(new Regle[0]);
+        indiceDansRegle = new int[motifs.size()];
+        genres = new int[motifs.size()];
+        longueurs = new int[motifs.size()];
+        boolean prefixes = true;
+        for (int m = 0; m < motifs.size(); m++) {
+            indiceDansRegle[m] = indices.get(m);
+            genres[m] = motifs.get(m).getGenre();
+            longueurs[m] = textes.get(m).length();
+            prefixes &= genres[m] == Motif.PREFIXE;
+        }
+        ancre = prefixes;
+        signature = versions.toString().hashCode();
+    }
+
+    private static List<Regle> chargerDisponibles() {
+        List<Regle> disponibles = new ArrayList<>(List.of(new RegleShebang(), new RegleMarqueurs(), new ReglePrint()));
+        Set<String> vus = new HashSet<>();
+        for (Regle regle : disponibles) {
+            vus.add(regle.getIdentifiant());
+        }
+        for (Regle regle : ServiceLoader.load(Regle.class)) {
+            if (!vus.add(regle.getIdentifiant())) {
+                throw new IllegalStateException("Deux règles ont l'identifiant '" + regle.getIdentifiant() + "'.");
+            }
+            disponibles.add(regle);
+        }
+        return Collections.unmodifiableList(disponibles);
+    }
+
+    /**
+     * @return Le jeu de regles utilise par les analyses.
+     */
+    public static JeuRegles courant() {
+        return courant;
+    }
+
+    /**
+     * Choisit les regles appliquees par les analyses suivantes : les regles actives par defaut et celles demandees.
+     *
+     * @param identifiants Les identifiants des regles demandees en plus des regles actives par defaut.
+     * @throws IllegalArgumentException Si un identifiant ne correspond a aucune regle disponible.
+     */
+    public static void activer(Collection<String> identifiants) {
+        courant = new JeuRegles(new HashSet<>(identifiants));
+    }
+
+    /**
+     * @return Toutes les regles disponibles, actives ou non.
+     */
+    public static List<Regle> getDisponibles() {
+        return DISPONIBLES;
+    }
+
+    private static String identifiants() {
+        List<String> identifiants = new ArrayList<>();
+        for (Regle regle : DISPONIBLES) {
+            identifiants.add(regle.getIdentifiant());
+        }
+        return String.join(", ", identifiants);
+    }
+
+    /**
+     * @return Les regles du jeu, dans l'ordre ou elles sont appelees sur une ligne.
+     */
+    public List<Regle> getRegles() {
+        return Collections.unmodifiableList(regles);
+    }
+
+    /**
+     * @return Une empreinte des identifiants et des versions des regles du jeu, enregistree avec le cache d'analyse.
+     */
+    public int getSignature() {
+        return signature;
+    }
+
+    /**
+     * Cherche les motifs de toutes les regles dans une ligne et appelle la regle de chaque occurrence trouvee.
+     *
+     * @param ligne       La ligne, sans son caractere de fin de ligne.
+     * @param numeroLigne Le numero de la ligne dans le fichier, a partir de 1.
+     * @param resultat    Le resultat du fichier.
+     */
+    void analyserLigne(CharSequence ligne, int numeroLigne, ResultatFichier resultat) {
+        if (automate.estVide()) {
+            return;
+        }
+        int n = ligne.length();
+        int debutTexte = 0;
+        while (debutTexte < n && ligne.charAt(debutTexte) <= ' ') {
+            debutTexte++;
+        }
+
+        int etat = 0;
+        for (int i = ancre ? debutTexte : 0; i < n; i++) {
+            etat = automate.suivant(etat, ligne.charAt(i));
+            if (ancre && automate.profondeur(etat) != i - debutTexte + 1) {
+                // Le texte lu depuis le début de ligne ne commence plus aucun motif
+                return;
+            }
+            for (int motif : automate.sorties(etat)) {
+                int debut = i - longueurs[motif] + 1;
+                if (accepte(ligne, motif, debut, i + 1, debutTexte)) {
+                    regleDuMotif[motif].correspondance(ligne, numeroLigne, indiceDansRegle[motif], debut, resultat);
+                }
+            }
+        }
+    }
+
+    private boolean accepte(CharSequence ligne, int motif, int debut, int fin, int debutTexte) {
+        switch (genres[motif]) {
+            case Motif.PREFIXE:
+                return debut == debutTexte;
+            case Motif.MOT:
+                return (debut == 0 || !estCaractereMot(ligne.charAt(debut - 1)))
+                        && (fin == ligne.length() || !estCaractereMot(ligne.charAt(fin)));
+            default:
+                return true;
+        }
+    }
+
+    private static boolean estCaractereMot(char c) {
+        return c == '_' || Character.isLetterOrDigit(c);
+    }
+}
@@ -0,0 +1,131 @@
+package outil;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+/**
+ * La classe LectureProjetee analyse les tres gros fichiers Python en projetant le fichier en memoire
+ * (FileChannel.map) et en parcourant directement ses octets, par blocs. Les fins de ligne, les signatures "def" et
+ * les triples guillemets etant en ASCII, chaque ligne ASCII est presentee aux verifications sans etre decodee ni
+ * allouee ; seules les lignes contenant des octets non ASCII sont decodees, dans l'encodage du fichier determine
+ * par LecturePython. Un fichier dans un encodage ou les octets ASCII ne sont pas toujours des caracteres ASCII est
+ * decode en entier.
+ *
+ *
+ * @author CHEBALLAH Jawed
+ * @author FWALA Yvon
+ */
+final class LectureProjetee {
+    /** Taille a partir de laquelle un fichier est projete en memoire au lieu d'etre lu par un BufferedReader. */
+    static final long SEUIL = 4L * 1024 * 1024;
+    /** Taille des blocs copies depuis le fichier projete avant d'y chercher les lignes. */
+    private static final int TAILLE_BLOC = 64 * 1024;
+
+    private LectureProjetee() {
+    }
+
+    /**
+     * Indique si un fichier de cette taille doit etre lu par projection en memoire.
+     *
+     * @param taille La taille du fichier en octets.
+     * @return true si la lecture projetee s'applique.
+     */
+    static boolean applicable(long taille) {
+        return taille >= SEUIL && taille <= Integer.MAX_VALUE;
+    }
+
+    /**
+     * Lit le fichier projete en memoire et transmet chaque ligne a la passe d'analyse.
+     *
+     * @param fichier  Le fichier a lire.
+     * @param resultat Le resultat a remplir.
+     * @param passe    La passe d'analyse du resultat.
+     * @throws IOException Si une exception d'entree/sortie se produit ou si l'encodage declare est inconnu.
+     */
+    static void lire(File fichier, ResultatFichier resultat, PasseAnalyse passe) throws IOException {
+        MappedByteBuffer octets;
+        try (FileChannel canal = FileChannel.open(fichier.toPath(), StandardOpenOption.READ)) {
+            octets = canal.map(FileChannel.MapMode.READ_ONLY, 0, canal.size());
+        }
+
+        int n = octets.limit();
+        byte[] entete = new byte[Math.min(n, LecturePython.ENTETE_MAX)];
+        octets.get(0, entete);
+        LecturePython.Encodage encodage = LecturePython.encodage(entete, entete.length);
+        int position = encodage.isBom() ? 3 : 0;
+        if (!encodage.isCompatibleAscii()) {
+            LecturePython.analyser(encodage.getCharset().decode(octets.position(position)), resultat, passe);
+            return;
+        }
+
+        Charset charset = encodage.getCharset();
+        LigneOctets ligne = new LigneOctets();
+        byte[] bloc = new byte[TAILLE_BLOC];
+        int valides = 0;
+        boolean retourChariot = false;
+
+        while (true) {
+            // Copie le bloc suivant du fichier projeté à la suite de la ligne incomplète du bloc précédent
+            int aCopier = Math.min(bloc.length - valides, n - position);
+            octets.get(position, bloc, valides, aCopier);
+            position += aCopier;
+            valides += aCopier;
+            boolean finFichier = position == n;
+
+            int debut = 0;
+            if (retourChariot && valides > 0 && bloc[0] == '\n') {
+                debut = 1;
+            }
+            retourChariot = false;
+
+            while (debut < valides) {
+                // Cherche la fin de la ligne ; les fins de ligne sont \n, \r ou \r\n, comme pour readLine()
+                int fin = debut;
+                boolean ascii = true;
+                while (fin < valides && bloc[fin] != '\n' && bloc[fin] != '\r') {
+                    ascii &= bloc[fin] >= 0;
+                    fin++;
+                }
+                if (fin == valides && !finFichier) {
+                    break;
+                }
+
+                CharSequence courante = ascii ? ligne.placer(bloc, debut, fin) : new String(bloc, debut, fin - debut, charset);
+                resultat.empreinte = Empreinte.ajouter(resultat.empreinte, courante);
+                passe.analyserLigne(courante);
+
+                if (fin == valides) {
+                    debut = fin;
+                    break;
+                }
+                debut = fin + 1;
+                if (bloc[fin] == '\r') {
+                    if (debut < valides && bloc[debut] == '\n') {
+                        debut++;
+                    } else if (debut == valides) {
+                        retourChariot = true;
+                    }
+                }
+            }
+
+            if (finFichier) {
+                passe.terminer();
+                return;
+            }
+
+            // Conserve la ligne incomplète ; agrandit le bloc si elle l'occupe entièrement
+            int reste = valides - debut;
+            if (reste == bloc.length) {
+                bloc = Arrays.copyOf(bloc, bloc.length * 2);
+            } else {
+                System.arraycopy(bloc, debut, bloc, 0, reste);
+            }
+            valides = reste;
+        }
+    }
+}
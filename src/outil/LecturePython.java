@@ -0,0 +1,309 @@
+package outil;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.Charset;
+import java.nio.charset.IllegalCharsetNameException;
+import java.nio.charset.StandardCharsets;
+import java.nio.charset.UnsupportedCharsetException;
+import java.util.Locale;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * La classe LecturePython lit un fichier Python dans l'encodage que lui donnerait l'interpreteur Python 3, quel
+ * que soit l'encodage par defaut de la machine : la declaration d'encodage (PEP 263, par exemple
+ * {@code # -*- coding: latin-1 -*-}) sur la premiere ligne, ou sur la deuxieme si la premiere est vide ou un
+ * commentaire, sinon UTF-8. Une marque d'ordre des octets UTF-8 (BOM) impose UTF-8 et n'est pas transmise comme
+ * un caractere de la premiere ligne.
+ *
+ * <p>Pour l'analyse, les lignes sont decoupees directement dans les octets : une ligne entierement ASCII est
+ * presentee aux verifications sans etre decodee ni copiee, seules les lignes contenant d'autres octets sont
+ * decodees. Les fins de ligne sont \n, \r ou \r\n, comme pour BufferedReader.readLine.
+ *
+ *
+ * @author CHEBALLAH Jawed
+ * @author FWALA Yvon
+ */
+public final class LecturePython {
+    /** Nombre maximal d'octets lus au debut d'un flux pour y chercher la declaration d'encodage. */
+    static final int ENTETE_MAX = 8 * 1024;
+
+    private static final Pattern DECLARATION = Pattern.compile("^[ \\t\\f]*#.*?coding[:=][ \\t]*([-\\w.]+)");
+    private static final Pattern VIDE_OU_COMMENTAIRE = Pattern.compile("^[ \\t\\f]*(?:#.*)?$");
+    private static final Encodage UTF8 = new Encodage(StandardCharsets.UTF_8, "utf-8", false, false);
+
+    private LecturePython() {
+    }
+
+    /**
+     * Determine l'encodage d'un contenu Python d'apres ses deux premieres lignes.
+     *
+     * @param octets   Le debut du contenu, ou tout le contenu.
+     * @param longueur Le nombre d'octets a considerer.
+     * @return L'encodage du contenu.
+     * @throws IOException Si l'encodage declare est inconnu.
+     */
+    public static Encodage encodage(byte[] octets, int longueur) throws IOException {
+        boolean bom = longueur >= 3 && octets[0] == (byte) 0xEF && octets[1] == (byte) 0xBB && octets[2] == (byte) 0xBF;
+        int debut = bom ? 3 : 0;
+        int fin = finLigne(octets, debut, longueur);
+        String nom = declaration(octets, debut, fin);
+        if (nom == null && VIDE_OU_COMMENTAIRE.matcher(new String(octets, debut, fin - debut, StandardCharsets.ISO_8859_1)).matches()) {
+            int debut2 = suivante(octets, fin, longueur);
+            nom = declaration(octets, debut2, finLigne(octets, debut2, longueur));
+        }
+
+        if (bom) {
+            return new Encodage(StandardCharsets.UTF_8, nom != null ? nom : "utf-8", true, nom != null);
+        }
+        if (nom == null) {
+            return UTF8;
+        }
+        return new Encodage(charset(nom), nom, false, true);
+    }
+
+    /**
+     * Determine l'encodage d'un flux Python sans consommer ses octets.
+     *
+     * @param flux Le flux, qui doit permettre mark et reset.
+     * @return L'encodage du flux.
+     * @throws IOException Si la lecture echoue ou si l'encodage declare est inconnu.
+     */
+    public static Encodage encodage(InputStream flux) throws IOException {
+        flux.mark(ENTETE_MAX);
+        byte[] entete = new byte[ENTETE_MAX];
+        int n = 0;
+        int lignes = 0;
+        while (n < ENTETE_MAX && lignes < 2) {
+            int c = flux.read();
+            if (c < 0) {
+                break;
+            }
+            entete[n++] = (byte) c;
+            if (c == '\n') {
+                lignes++;
+            }
+        }
+        flux.reset();
+        return encodage(entete, n);
+    }
+
+    /**
+     * Ouvre un fichier Python en lecture dans son encodage. Les octets invalides sont remplaces par U+FFFD.
+     *
+     * @param fichier Le fichier a lire.
+     * @return Le lecteur du fichier, place apres l'eventuel BOM.
+     * @throws IOException Si le fichier ne peut pas etre ouvert ou si son encodage declare est inconnu.
+     */
+    public static BufferedReader ouvrir(File fichier) throws IOException {
+        InputStream flux = new BufferedInputStream(new FileInputStream(fichier));
+        try {
+            Encodage encodage = encodage(flux);
+            return lecteur(flux, encodage, false);
+        } catch (IOException e) {
+            flux.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Cree le lecteur d'un flux dont l'encodage a deja ete determine.
+     *
+     * @param flux     Le flux, place au debut du contenu.
+     * @param encodage L'encodage du flux.
+     * @param strict   true pour qu'un octet invalide provoque une CharacterCodingException au lieu d'etre remplace.
+     * @return Le lecteur, place apres l'eventuel BOM.
+     * @throws IOException Si la lecture du BOM echoue.
+     */
+    static BufferedReader lecteur(InputStream flux, Encodage encodage, boolean strict) throws IOException {
+        if (encodage.isBom()) {
+            flux.skipNBytes(3);
+        }
+        return new BufferedReader(strict ? new InputStreamReader(flux, encodage.getCharset().newDecoder())
+                : new InputStreamReader(flux, encodage.getCharset()));
+    }
+
+    /**
+     * Transmet chaque ligne d'un contenu Python a une passe d'analyse et calcule son empreinte.
+     *
+     * @param contenu  Le contenu du fichier.
+     * @param resultat Le resultat a remplir.
+     * @param passe    La passe d'analyse, ou null pour calculer seulement l'empreinte.
+     * @throws IOException Si l'encodage declare est inconnu.
+     */
+    static void analyser(byte[] contenu, ResultatFichier resultat, PasseAnalyse passe) throws IOException {
+        Encodage encodage = encodage(contenu, Math.min(contenu.length, ENTETE_MAX));
+        int debut = encodage.isBom() ? 3 : 0;
+        int n = contenu.length;
+        if (!encodage.isCompatibleAscii()) {
+            analyser(new String(contenu, debut, n - debut, encodage.getCharset()), resultat, passe);
+            return;
+        }
+
+        Charset charset = encodage.getCharset();
+        LigneOctets ligne = new LigneOctets();
+        while (debut < n) {
+            int fin = debut;
+            boolean ascii = true;
+            while (fin < n && contenu[fin] != '\n' && contenu[fin] != '\r') {
+                ascii &= contenu[fin] >= 0;
+                fin++;
+            }
+            // Une ligne ASCII n'est pas décodée : ses octets sont ses caractères
+            ligne(ascii ? ligne.placer(contenu, debut, fin) : new String(contenu, debut, fin - debut, charset), resultat, passe);
+            if (fin == n) {
+                break;
+            }
+            debut = fin + 1;
+            if (contenu[fin] == '\r' && debut < n && contenu[debut] == '\n') {
+                debut++;
+            }
+        }
+        if (passe != null) {
+            passe.terminer();
+        }
+    }
+
+    /**
+     * Transmet chaque ligne d'un texte deja decode a une passe d'analyse et calcule son empreinte.
+     *
+     * @param texte    Le texte du fichier, sans BOM.
+     * @param resultat Le resultat a remplir.
+     * @param passe    La passe d'analyse, ou null pour calculer seulement l'empreinte.
+     */
+    static void analyser(CharSequence texte, ResultatFichier resultat, PasseAnalyse passe) {
+        int n = texte.length();
+        int debut = 0;
+        while (debut < n) {
+            int fin = debut;
+            while (fin < n && texte.charAt(fin) != '\n' && texte.charAt(fin) != '\r') {
+                fin++;
+            }
+            ligne(texte.subSequence(debut, fin), resultat, passe);
+            if (fin == n) {
+                break;
+            }
+            debut = fin + 1;
+            if (texte.charAt(fin) == '\r' && debut < n && texte.charAt(debut) == '\n') {
+                debut++;
+            }
+        }
+        if (passe != null) {
+            passe.terminer();
+        }
+    }
+
+    private static void ligne(CharSequence ligne, ResultatFichier resultat, PasseAnalyse passe) {
+        resultat.empreinte = Empreinte.ajouter(resultat.empreinte, ligne);
+        if (passe != null) {
+            passe.analyserLigne(ligne);
+        }
+    }
+
+    private static int finLigne(byte[] octets, int debut, int longueur) {
+        int fin = debut;
+        while (fin < longueur && octets[fin] != '\n' && octets[fin] != '\r') {
+            fin++;
+        }
+        return fin;
+    }
+
+    private static int suivante(byte[] octets, int fin, int longueur) {
+        if (fin < longueur && octets[fin] == '\r' && fin + 1 < longueur && octets[fin + 1] == '\n') {
+            return fin + 2;
+        }
+        return Math.min(fin + 1, longueur);
+    }
+
+    // La déclaration n'est cherchée que dans une ligne de commentaire, lue octet pour caractère
+    private static String declaration(byte[] octets, int debut, int fin) {
+        int i = debut;
+        while (i < fin && (octets[i] == ' ' || octets[i] == '\t' || octets[i] == '\f')) {
+            i++;
+        }
+        if (i == fin || octets[i] != '#') {
+            return null;
+        }
+        Matcher m = DECLARATION.matcher(new String(octets, debut, fin - debut, StandardCharsets.ISO_8859_1));
+        return m.find() ? m.group(1) : null;
+    }
+
+    // Noms normalisés comme le fait Python (tokenize._get_normal_name), puis alias de Java
+    private static Charset charset(String nom) throws IOException {
+        String normal = nom.toLowerCase(Locale.ROOT).replace('_', '-');
+        if (normal.equals("utf-8") || normal.startsWith("utf-8-")) {
+            return StandardCharsets.UTF_8;
+        }
+        for (String latin1 : new String[] {"latin-1", "iso-8859-1", "iso-latin-1"}) {
+            if (normal.equals(latin1) || normal.startsWith(latin1 + "-")) {
+                return StandardCharsets.ISO_8859_1;
+            }
+        }
+        try {
+            return Charset.forName(normal);
+        } catch (IllegalCharsetNameException | UnsupportedCharsetException e) {
+            throw new IOException("Encodage inconnu '" + nom + "' déclaré dans le fichier.");
+        }
+    }
+
+    /**
+     * Encodage d'un fichier Python : le jeu de caracteres, le nom declare et la presence d'un BOM.
+     */
+    public static final class Encodage {
+        private final Charset charset;
+        private final String nom;
+        private final boolean bom;
+        private final boolean declare;
+
+        Encodage(Charset charset, String nom, boolean bom, boolean declare) {
+            this.charset = charset;
+            this.nom = nom;
+            this.bom = bom;
+            this.declare = declare;
+        }
+
+        /**
+         * @return Le jeu de caracteres du fichier.
+         */
+        public Charset getCharset() {
+            return charset;
+        }
+
+        /**
+         * @return Le nom de l'encodage tel qu'il est declare dans le fichier, ou "utf-8" sans declaration.
+         */
+        public String getNom() {
+            return nom;
+        }
+
+        /**
+         * @return true si le fichier commence par un BOM UTF-8.
+         */
+        public boolean isBom() {
+            return bom;
+        }
+
+        /**
+         * @return true si le fichier declare son encodage.
+         */
+        public boolean isDeclare() {
+            return declare;
+        }
+
+        /**
+         * @return true si chaque octet ASCII du fichier est le caractere de meme code, hors de toute sequence
+         * multi-octets : les lignes peuvent alors etre decoupees et lues directement dans les octets.
+         */
+        boolean isCompatibleAscii() {
+            String nomCharset = charset.name();
+            return nomCharset.equals("UTF-8") || nomCharset.equals("US-ASCII") || nomCharset.startsWith("ISO-8859-")
+                    || nomCharset.startsWith("windows-125");
+        }
+    }
+}
@@ -0,0 +1,189 @@
+package outil;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * La classe LectureTar lit une archive tar en une seule passe sequentielle, entree par entree, sans rien ecrire
+ * sur le disque. Elle reconnait les formats ustar, GNU (noms longs) et POSIX pax (chemin etendu) ; seules les
+ * entrees de fichiers ordinaires sont renvoyees, les dossiers et les liens sont sautes.
+ *
+ *
+ * @author CHEBALLAH Jawed
+ * @author FWALA Yvon
+ */
+final class LectureTar {
+    private static final int BLOC = 512;
+
+    private final InputStream flux;
+    private long tailleEntree;
+    private long resteEntree;
+
+    /**
+     * Constructeur de la classe LectureTar.
+     *
+     * @param flux Le flux de l'archive, deja decompresse et de preference tamponne.
+     */
+    LectureTar(InputStream flux) {
+        this.flux = flux;
+    }
+
+    /**
+     * Passe a l'entree de fichier suivante ; le contenu non lu de l'entree courante est saute.
+     *
+     * @return Le chemin de l'entree dans l'archive, ou null a la fin de l'archive.
+     * @throws IOException Si l'archive est tronquee ou n'est pas une archive tar.
+     */
+    String suivante() throws IOException {
+        flux.skipNBytes(resteEntree);
+        resteEntree = 0;
+        String nomEtendu = null;
+
+        while (true) {
+            byte[] entete = flux.readNBytes(BLOC);
+            if (entete.length == 0 || estVide(entete)) {
+                return null;
+            }
+            if (entete.length < BLOC) {
+                throw new EOFException("Archive tar tronquée.");
+            }
+            verifierSomme(entete);
+
+            long taille = lireTaille(entete);
+            long remplissage = (BLOC - taille % BLOC) % BLOC;
+            byte type = entete[156];
+
+            if (type == 'L' || type == 'x') {
+                // Nom long GNU ou en-tête pax : s'applique à l'entrée suivante
+                byte[] donnees = lireExactement(taille);
+                flux.skipNBytes(remplissage);
+                String nom = type == 'L' ? texte(donnees, 0, donnees.length) : cheminPax(donnees);
+                if (nom != null) {
+                    nomEtendu = nom;
+                }
+            } else if (type == '0' || type == 0 || type == '7') {
+                tailleEntree = taille;
+                resteEntree = taille + remplissage;
+                return nomEtendu != null ? nomEtendu : nomUstar(entete);
+            } else {
+                flux.skipNBytes(taille + remplissage);
+                nomEtendu = null;
+            }
+        }
+    }
+
+    /**
+     * Lit tout le contenu de l'entree courante.
+     *
+     * @return Le contenu de l'entree.
+     * @throws IOException Si l'archive est tronquee ou si l'entree est trop grande pour etre chargee.
+     */
+    byte[] lireContenu() throws IOException {
+        byte[] contenu = lireExactement(tailleEntree);
+        resteEntree -= contenu.length;
+        return contenu;
+    }
+
+    private byte[] lireExactement(long taille) throws IOException {
+        if (taille > Integer.MAX_VALUE - 8) {
+            throw new IOException("Entrée tar trop grande : " + taille + " octets.");
+        }
+        byte[] donnees = flux.readNBytes((int) taille);
+        if (donnees.length < taille) {
+            throw new EOFException("Archive tar tronquée.");
+        }
+        return donnees;
+    }
+
+    private static boolean estVide(byte[] entete) {
+        for (byte octet : entete) {
+            if (octet != 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    // La somme de contrôle porte sur tous les octets de l'en-tête, le champ de la somme valant des espaces
+    private static void verifierSomme(byte[] entete) throws IOException {
+        long somme = 0;
+        for (int i = 0; i < BLOC; i++) {
+            somme += i >= 148 && i < 156 ? ' ' : entete[i] & 0xFF;
+        }
+        if (somme != lireOctal(entete, 148, 8)) {
+            throw new IOException("Archive tar invalide (somme de contrôle incorrecte).");
+        }
+    }
+
+    private static long lireTaille(byte[] entete) {
+        // Les tailles de plus de 8 Go sont codées en base 256, avec le bit de poids fort du premier octet à 1
+        if ((entete[124] & 0x80) != 0) {
+            long taille = entete[124] & 0x7F;
+            for (int i = 125; i < 136; i++) {
+                taille = (taille << 8) | (entete[i] & 0xFF);
+            }
+            return taille;
+        }
+        return lireOctal(entete, 124, 12);
+    }
+
+    private static long lireOctal(byte[] entete, int debut, int longueur) {
+        long valeur = 0;
+        for (int i = debut; i < debut + longueur; i++) {
+            byte octet = entete[i];
+            if (octet >= '0' && octet <= '7') {
+                valeur = valeur * 8 + (octet - '0');
+            } else if (octet == 0 || (octet == ' ' && valeur > 0)) {
+                break;
+            }
+        }
+        return valeur;
+    }
+
+    private static String nomUstar(byte[] entete) {
+        String nom = texte(entete, 0, 100);
+        boolean ustar = entete[257] == 'u' && entete[258] == 's' && entete[259] == 't' && entete[260] == 'a' && entete[261] == 'r';
+        if (ustar && entete[345] != 0) {
+            return texte(entete, 345, 155) + "/" + nom;
+        }
+        return nom;
+    }
+
+    // Enregistrements pax : "longueur cle=valeur\n", la longueur comptant tout l'enregistrement
+    private static String cheminPax(byte[] donnees) throws IOException {
+        int position = 0;
+        while (position < donnees.length) {
+            int espace = position;
+            while (espace < donnees.length && donnees[espace] != ' ') {
+                espace++;
+            }
+            int longueur;
+            try {
+                longueur = Integer.parseInt(new String(donnees, position, espace - position, StandardCharsets.US_ASCII));
+            } catch (NumberFormatException e) {
+                throw new IOException("Archive tar invalide (en-tête pax incorrect).");
+            }
+            // L'archive vient de l'extérieur : un enregistrement plus court que son propre en-tête est refusé
+            int fin = position + longueur;
+            if (longueur <= 0 || fin > donnees.length || espace + 1 >= fin || donnees[fin - 1] != '\n') {
+                throw new IOException("Archive tar invalide (en-tête pax incorrect).");
+            }
+            String enregistrement = new String(donnees, espace + 1, fin - espace - 2, StandardCharsets.UTF_8);
+            if (enregistrement.startsWith("path=")) {
+                return enregistrement.substring(5);
+            }
+            position += longueur;
+        }
+        return null;
+    }
+
+    private static String texte(byte[] octets, int debut, int longueur) {
+        int fin = debut;
+        while (fin < debut + longueur && octets[fin] != 0) {
+            fin++;
+        }
+        return new String(octets, debut, fin - debut, StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,482 @@
+package outil;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Set;
+
+/**
+ * La classe LexeurPython decoupe un fichier Python en unites lexicales au fil des lignes, sans jamais revenir en
+ * arriere : elle suit l'indentation des lignes logiques, les chaines (simples et triples, sur plusieurs lignes), la
+ * profondeur des parentheses et les continuations par barre oblique inverse. Elle en deduit l'etendue de chaque
+ * fonction (def et async def, imbriquees ou non, signature sur une ou plusieurs lignes), ses parametres et leurs
+ * annotations, et la presence d'une docstring comme premiere instruction du corps.
+ *
+ * <p>La memoire utilisee est bornee par la profondeur d'imbrication des fonctions et la longueur d'une signature,
+ * et non par la taille du fichier. Une signature dont la parenthese n'est jamais fermee est abandonnee a la
+ * premiere ligne revenue a la colonne du def qui commence une instruction (mot-cle comme def, class, return ou
+ * decorateur), ou apres SIGNATURE_MAX caracteres. La parenthese fermante d'une signature sur plusieurs lignes,
+ * souvent a la colonne du def (style black), ne l'interrompt donc pas.
+ *
+ *
+ * @author CHEBALLAH Jawed
+ * @author FWALA Yvon
+ */
+class LexeurPython {
+    // Étapes de la lecture d'une signature de fonction
+    private static final int AVANT_PARAMETRES = 0;
+    private static final int NOM_PARAMETRE = 1;
+    private static final int ANNOTATION = 2;
+    private static final int DEFAUT = 3;
+    private static final int APRES_PARAMETRES = 4;
+    private static final int RETOUR = 5;
+    /** Nombre maximal de caracteres lus dans une signature avant de l'abandonner. */
+    static final int SIGNATURE_MAX = 64 * 1024;
+    /** Mots-cles qui commencent une instruction et ne peuvent pas continuer une liste de parametres. */
+    private static final Set<String> INSTRUCTIONS = Set.of("def", "class", "async", "return", "if", "elif", "else",
+            "for", "while", "with", "try", "except", "finally", "import", "from", "pass", "raise", "global",
+            "nonlocal", "del", "assert", "break", "continue", "yield");
+
+    private static final String[] SIMPLES = {"\"", "'"};
+    private static final String[] TRIPLES = {"\"\"\"", "'''"};
+    /** Caracteres qui peuvent changer l'etat lexical hors chaine. */
+    private static final boolean[] SPECIAUX = new boolean[128];
+
+    static {
+        for (char c : "#\\\"'()[]{}".toCharArray()) {
+            SPECIAUX[c] = true;
+        }
+    }
+
+    private final ResultatFichier resultat;
+    private final Deque<FonctionOuverte> ouvertes = new ArrayDeque<>();
+    private int numeroLigne = 0;
+    private int derniereLigneCode = 0;
+
+    // État lexical entre deux lignes physiques
+    private String delimiteur;
+    private int profondeur = 0;
+    private boolean continuation = false;
+
+    // Signature en cours de lecture
+    private ResultatFonction enTete;
+    private int indentationEnTete;
+    private int etape;
+    private int longueurEnTete;
+    private final StringBuilder nomParametre = new StringBuilder();
+    private final StringBuilder annotation = new StringBuilder();
+    private boolean parametreAnnote;
+
+    // Fonction dont la première instruction du corps n'a pas encore été lue
+    private ResultatFonction attenteDocstring;
+    private int indentationAttente;
+
+    /**
+     * Constructeur de la classe LexeurPython.
+     *
+     * @param resultat Le resultat dans lequel ajouter les fonctions trouvees.
+     */
+    LexeurPython(ResultatFichier resultat) {
+        this.resultat = resultat;
+    }
+
+    /**
+     * Lit une ligne physique du fichier.
+     *
+     * @param ligne La ligne lue, sans son caractere de fin de ligne.
+     */
+    void analyserLigne(CharSequence ligne) {
+        numeroLigne++;
+        int n = ligne.length();
+        int i = 0;
+
+        if (enTete != null && delimiteur == null && profondeur > 0 && !continuation && estNouvelleInstruction(ligne)) {
+            // Parenthèse jamais fermée : cette ligne commence une nouvelle instruction
+            abandonnerEnTete();
+        }
+
+        if (delimiteur == null && profondeur == 0 && !continuation) {
+            // Début d'une ligne logique : seule sa première ligne physique porte l'indentation
+            int colonne = 0;
+            while (i < n) {
+                char c = ligne.charAt(i);
+                if (c == ' ') {
+                    colonne++;
+                } else if (c == '\t') {
+                    colonne = (colonne / 8 + 1) * 8;
+                } else if (c == '\f') {
+                    colonne = 0;
+                } else {
+                    break;
+                }
+                i++;
+            }
+            if (i == n || ligne.charAt(i) == '#') {
+                // Ligne vide ou commentaire : ni instruction, ni fin de bloc
+                return;
+            }
+            i = debutLigneLogique(ligne, i, colonne);
+        }
+        continuation = false;
+
+        while (i < n) {
+            if (enTete != null && longueurEnTete > SIGNATURE_MAX) {
+                abandonnerEnTete();
+            }
+            if (delimiteur != null) {
+                i = finChaine(ligne, i);
+                continue;
+            }
+
+            char c = ligne.charAt(i);
+            if (enTete == null && (c >= SPECIAUX.length || !SPECIAUX[c])) {
+                // Hors signature, seuls les caractères spéciaux changent l'état
+                i++;
+                continue;
+            }
+            if (c == '#') {
+                break;
+            }
+            if (c == '\\' && i == n - 1) {
+                continuation = true;
+                break;
+            }
+            if (c == '"' || c == '\'') {
+                delimiteur = correspond(ligne, i + 1, c) && correspond(ligne, i + 2, c) ? TRIPLES[c == '"' ? 0 : 1] : SIMPLES[c == '"' ? 0 : 1];
+                texteEnTete(ligne, i, i + delimiteur.length());
+                i += delimiteur.length();
+                continue;
+            }
+
+            if (enTete != null) {
+                i = avancerEnTete(ligne, i);
+            } else {
+                i++;
+            }
+
+            if (c == '(' || c == '[' || c == '{') {
+                profondeur++;
+            } else if ((c == ')' || c == ']' || c == '}') && profondeur > 0) {
+                profondeur--;
+            }
+        }
+
+        // Une chaîne simple non terminée s'arrête à la fin de la ligne, sauf après une barre oblique inverse
+        if (delimiteur != null && delimiteur.length() == 1 && !continuation) {
+            delimiteur = null;
+        }
+        // Une signature sans deux-points s'arrête avec sa ligne logique
+        if (enTete != null && delimiteur == null && profondeur == 0 && !continuation) {
+            finEnTete();
+        }
+        derniereLigneCode = numeroLigne;
+    }
+
+    /**
+     * Avance dans la chaine ouverte jusqu'a son delimiteur de fin ou jusqu'a la fin de la ligne.
+     *
+     * @return La position qui suit la partie de chaine lue.
+     */
+    private int finChaine(CharSequence ligne, int debut) {
+        int n = ligne.length();
+        char guillemet = delimiteur.charAt(0);
+        boolean triple = delimiteur.length() == 3;
+        int i = debut;
+
+        while (i < n) {
+            char c = ligne.charAt(i);
+            if (c == '\\') {
+                // Le caractère échappé ne peut pas fermer la chaîne, même dans une chaîne brute
+                if (i + 1 == n) {
+                    continuation = true;
+                }
+                i += 2;
+            } else if (c == guillemet && (!triple || correspond(ligne, i + 1, c) && correspond(ligne, i + 2, c))) {
+                i += delimiteur.length();
+                delimiteur = null;
+                break;
+            } else {
+                i++;
+            }
+        }
+        i = Math.min(i, n);
+        texteEnTete(ligne, debut, i);
+        return i;
+    }
+
+    /**
+     * Termine la lecture du fichier : les fonctions encore ouvertes se terminent a la derniere ligne de code.
+     */
+    void terminer() {
+        if (enTete != null) {
+            finEnTete();
+        }
+        fermer(-1);
+        attenteDocstring = null;
+    }
+
+    /**
+     * Traite le debut d'une ligne logique : fin des blocs moins indentes, docstring, debut de signature.
+     *
+     * @return La position a partir de laquelle la ligne doit encore etre parcourue.
+     */
+    private int debutLigneLogique(CharSequence ligne, int debut, int colonne) {
+        fermer(colonne);
+
+        if (attenteDocstring != null) {
+            if (colonne > indentationAttente) {
+                marquerDocstring(attenteDocstring, estDebutChaine(ligne, debut));
+            }
+            attenteDocstring = null;
+        }
+
+        int i = debut;
+        if (estMotCle(ligne, i, "async")) {
+            i = sauterEspaces(ligne, i + 5);
+        }
+        if (!estMotCle(ligne, i, "def")) {
+            return debut;
+        }
+        int nom = sauterEspaces(ligne, i + 3);
+        int finNom = ScanneurLigne.finMot(ligne, nom);
+        if (finNom == nom) {
+            return debut;
+        }
+
+        enTete = new ResultatFonction(ligne.subSequence(nom, finNom).toString(), numeroLigne);
+        indentationEnTete = colonne;
+        longueurEnTete = 0;
+        etape = AVANT_PARAMETRES;
+        resultat.fonctions.add(enTete);
+        resultat.nbFonctions++;
+        return finNom;
+    }
+
+    /**
+     * Fait avancer la lecture de la signature d'un caractere hors chaine. La profondeur est celle d'avant ce
+     * caractere : les parametres sont a la profondeur 1.
+     *
+     * @return La position du caractere suivant.
+     */
+    private int avancerEnTete(CharSequence ligne, int i) {
+        char c = ligne.charAt(i);
+        longueurEnTete++;
+        boolean separateur = profondeur == 1 && (c == ',' || c == ')');
+
+        switch (etape) {
+            case AVANT_PARAMETRES:
+                // Les paramètres de type (def f[T](x)) sont ignorés
+                if (c == '(' && profondeur == 0) {
+                    etape = NOM_PARAMETRE;
+                } else if (c == ':' && profondeur == 0) {
+                    return finEnTete(ligne, i + 1);
+                }
+                break;
+            case NOM_PARAMETRE:
+            case ANNOTATION:
+            case DEFAUT:
+                if (separateur) {
+                    finParametre();
+                    etape = c == ')' ? APRES_PARAMETRES : NOM_PARAMETRE;
+                } else if (profondeur == 1 && c == ':' && etape == NOM_PARAMETRE) {
+                    etape = ANNOTATION;
+                    parametreAnnote = true;
+                } else if (profondeur == 1 && c == '=' && etape != DEFAUT) {
+                    etape = DEFAUT;
+                } else if (etape == NOM_PARAMETRE && !estEspace(c)) {
+                    nomParametre.append(c);
+                } else if (etape == ANNOTATION) {
+                    annotation.append(c);
+                }
+                break;
+            case APRES_PARAMETRES:
+                if (c == '-' && correspond(ligne, i + 1, '>')) {
+                    etape = RETOUR;
+                    return i + 2;
+                }
+                if (c == ':') {
+                    return finEnTete(ligne, i + 1);
+                }
+                break;
+            default:
+                if (c == ':' && profondeur == 0) {
+                    enTete.annotationRetour = annotation.toString().trim();
+                    annotation.setLength(0);
+                    return finEnTete(ligne, i + 1);
+                }
+                annotation.append(c);
+                break;
+        }
+        return i + 1;
+    }
+
+    // Ajoute à l'annotation en cours le texte d'une chaîne qui en fait partie
+    private void texteEnTete(CharSequence ligne, int debut, int fin) {
+        if (enTete != null && (etape == ANNOTATION || etape == RETOUR)) {
+            annotation.append(ligne, debut, fin);
+        }
+        if (enTete != null) {
+            longueurEnTete += fin - debut;
+        }
+    }
+
+    /**
+     * Abandonne une signature dont la parenthese ne se ferme pas : la fonction garde les parametres deja lus et la
+     * suite du fichier est lue hors de toute parenthese.
+     */
+    private void abandonnerEnTete() {
+        finEnTete();
+        profondeur = 0;
+    }
+
+    // Une instruction revenue à la colonne du def (ou avant) ne peut plus faire partie de sa signature
+    private boolean estNouvelleInstruction(CharSequence ligne) {
+        int n = ligne.length();
+        int colonne = 0;
+        int i = 0;
+        while (i < n) {
+            char c = ligne.charAt(i);
+            if (c == ' ') {
+                colonne++;
+            } else if (c == '\t') {
+                colonne = (colonne / 8 + 1) * 8;
+            } else if (c == '\f') {
+                colonne = 0;
+            } else {
+                break;
+            }
+            i++;
+        }
+        if (i == n || colonne > indentationEnTete) {
+            return false;
+        }
+        if (ligne.charAt(i) == '@') {
+            return true;
+        }
+        int fin = ScanneurLigne.finMot(ligne, i);
+        return fin > i && INSTRUCTIONS.contains(ligne.subSequence(i, fin).toString());
+    }
+
+    private void finParametre() {
+        // Les marqueurs * et / seuls ne sont pas des paramètres
+        if (nomParametre.length() > 0 && !(nomParametre.length() == 1 && "*/".indexOf(nomParametre.charAt(0)) >= 0)) {
+            enTete.parametres.add(new ResultatFonction.Parametre(nomParametre.toString(),
+                    parametreAnnote ? annotation.toString().trim() : null));
+        }
+        nomParametre.setLength(0);
+        annotation.setLength(0);
+        parametreAnnote = false;
+    }
+
+    /**
+     * Termine la signature au deux-points : la fonction est ouverte et sa docstring est cherchee dans le corps,
+     * sur la meme ligne ou sur la ligne logique suivante.
+     */
+    private int finEnTete(CharSequence ligne, int suite) {
+        ResultatFonction fonction = finEnTete();
+        int i = sauterEspaces(ligne, suite);
+
+        if (i < ligne.length() && ligne.charAt(i) != '#') {
+            marquerDocstring(fonction, estDebutChaine(ligne, i));
+        } else {
+            attenteDocstring = fonction;
+            indentationAttente = indentationEnTete;
+        }
+        return suite;
+    }
+
+    private ResultatFonction finEnTete() {
+        ResultatFonction fonction = enTete;
+        if (etape < APRES_PARAMETRES) {
+            finParametre();
+        }
+        enTete = null;
+        annotation.setLength(0);
+
+        fonction.annotee = fonction.annotationRetour != null;
+        for (ResultatFonction.Parametre parametre : fonction.parametres) {
+            fonction.annotee |= parametre.getAnnotation() != null;
+        }
+        if (fonction.annotee) {
+            resultat.nbFonctionsAnnotees++;
+            resultat.fonctionsAnnotees.add(fonction.getNom());
+        }
+        ouvertes.push(new FonctionOuverte(fonction, indentationEnTete));
+        return fonction;
+    }
+
+    private void marquerDocstring(ResultatFonction fonction, boolean docstring) {
+        if (docstring) {
+            fonction.pydoc = true;
+            resultat.nbFonctionsPydoc++;
+        }
+    }
+
+    // Ferme les fonctions dont l'indentation est supérieure ou égale à celle de la nouvelle ligne logique
+    private void fermer(int colonne) {
+        while (!ouvertes.isEmpty() && ouvertes.peek().indentation >= colonne) {
+            ouvertes.pop().fonction.ligneFin = derniereLigneCode;
+        }
+    }
+
+    // Une docstring est une chaîne littérale, éventuellement préfixée par r ou u (mais pas b ni f)
+    private static boolean estDebutChaine(CharSequence ligne, int i) {
+        int n = ligne.length();
+        if (i < n && "rRuU".indexOf(ligne.charAt(i)) >= 0) {
+            i++;
+        }
+        return i < n && (ligne.charAt(i) == '"' || ligne.charAt(i) == '\'');
+    }
+
+    private static boolean estMotCle(CharSequence ligne, int i, String motCle) {
+        int fin = i + motCle.length();
+        if (fin >= ligne.length() || !estEspace(ligne.charAt(fin))) {
+            return false;
+        }
+        for (int k = 0; k < motCle.length(); k++) {
+            if (ligne.charAt(i + k) != motCle.charAt(k)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean correspond(CharSequence ligne, int i, String attendu) {
+        if (i + attendu.length() > ligne.length()) {
+            return false;
+        }
+        for (int k = 0; k < attendu.length(); k++) {
+            if (ligne.charAt(i + k) != attendu.charAt(k)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean correspond(CharSequence ligne, int i, char attendu) {
+        return i < ligne.length() && ligne.charAt(i) == attendu;
+    }
+
+    private static int sauterEspaces(CharSequence ligne, int i) {
+        while (i < ligne.length() && estEspace(ligne.charAt(i))) {
+            i++;
+        }
+        return i;
+    }
+
+    private static boolean estEspace(char c) {
+        return c == ' ' || c == '\t' || c == '\f';
+    }
+
+    /**
+     * Fonction dont le corps est en cours de lecture, avec l'indentation de sa signature.
+     */
+    private static class FonctionOuverte {
+        final ResultatFonction fonction;
+        final int indentation;
+
+        FonctionOuverte(ResultatFonction fonction, int indentation) {
+            this.fonction = fonction;
+            this.indentation = indentation;
+        }
+    }
+}
@@ -0,0 +1,53 @@
+package outil;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * La classe LigneOctets presente une ligne ASCII d'un tableau d'octets comme une CharSequence, sans copie ni
+ * decodage. La meme instance est repositionnee a chaque ligne : elle n'est valable que pendant l'analyse de cette
+ * ligne.
+ *
+ *
+ * @author CHEBALLAH Jawed
+ * @author FWALA Yvon
+ */
+final class LigneOctets implements CharSequence {
+    private byte[] bloc;
+    private int debut;
+    private int fin;
+
+    /**
+     * Place la vue sur une ligne.
+     *
+     * @param nouveauBloc  Les octets qui contiennent la ligne, tous ASCII entre les deux positions.
+     * @param nouveauDebut La position du premier octet de la ligne.
+     * @param nouvelleFin  La position qui suit le dernier octet de la ligne.
+     * @return Cette vue.
+     */
+    LigneOctets placer(byte[] nouveauBloc, int nouveauDebut, int nouvelleFin) {
+        this.bloc = nouveauBloc;
+        this.debut = nouveauDebut;
+        this.fin = nouvelleFin;
+        return this;
+    }
+
+    @Override
+    public int length() {
+        return fin - debut;
+    }
+
+    @Override
+    public char charAt(int index) {
+        return (char) bloc[debut + index];
+    }
+
+    @Override
+    public CharSequence subSequence(int debutSequence, int finSequence) {
+        return new LigneOctets().placer(bloc, debut + debutSequence, debut + finSequence);
+    }
+
+    @Override
+    public String toString() {
+        return new String(bloc, debut, fin - debut, StandardCharsets.US_ASCII);
+    }
+}
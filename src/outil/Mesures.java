@@ -0,0 +1,331 @@
+package outil;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * La classe Mesures indique ou passe le temps d'un parcours (option --metrics) : temps ecoule et temps CPU,
+ * temps cumule de chaque verification, octets et lignes lus, debit en fichiers par seconde et fichiers les plus
+ * lents. Les memes valeurs sont emises sous forme d'evenements JDK Flight Recorder (japybeautify.AnalyseFichier
+ * et japybeautify.Parcours), visibles dans un enregistrement a cote du GC et des entrees/sorties.
+ *
+ * <p>Sans l'option --metrics, aucune instance n'est creee : le moteur d'analyse ne fait alors qu'un test de
+ * reference nulle par fichier et par ligne.
+ *
+ *
+ * @author CHEBALLAH Jawed
+ * @author FWALA Yvon
+ */
+public class Mesures {
+    private static final ThreadMXBean THREADS = ManagementFactory.getThreadMXBean();
+    private static final boolean CPU_THREAD = THREADS.isCurrentThreadCpuTimeSupported();
+
+    private final int nbPlusLents;
+    private final long debut = System.nanoTime();
+    private final long debutCpu = cpuProcessus();
+    private final EvenementParcours evenement = new EvenementParcours();
+    private final LongAdder nbFichiers = new LongAdder();
+    private final LongAdder nbFichiersCache = new LongAdder();
+    private final LongAdder nbFichiersDoublons = new LongAdder();
+    private final LongAdder octets = new LongAdder();
+    private final LongAdder lignes = new LongAdder();
+    private final LongAdder tempsRegles = new LongAdder();
+    private final LongAdder tempsFonctions = new LongAdder();
+    private final LongAdder tempsFichiers = new LongAdder();
+    private final LongAdder cpuAnalyses = new LongAdder();
+    private final PriorityQueue<FichierLent> plusLents = new PriorityQueue<>();
+    private volatile long seuilPlusLents;
+    private long duree = -1;
+    private long cpu;
+
+    /**
+     * Constructeur de la classe Mesures ; le temps ecoule est compte a partir de sa creation.
+     *
+     * @param nbPlusLents Le nombre de fichiers les plus lents a conserver.
+     */
+    public Mesures(int nbPlusLents) {
+        this.nbPlusLents = nbPlusLents;
+        evenement.begin();
+    }
+
+    /**
+     * Commence la mesure d'un fichier, dans le thread qui va l'analyser.
+     *
+     * @return Les compteurs du fichier, a remplir pendant l'analyse.
+     */
+    Fichier commencer() {
+        Fichier fichier = new Fichier();
+        fichier.evenement.begin();
+        fichier.debutCpu = cpuThread();
+        fichier.debut = System.nanoTime();
+        return fichier;
+    }
+
+    /**
+     * Termine la mesure d'un fichier, dans le thread qui l'a analyse, et emet son evenement JFR.
+     *
+     * @param fichier  Les compteurs remplis pendant l'analyse.
+     * @param resultat Le resultat de l'analyse.
+     */
+    void terminer(Fichier fichier, ResultatFichier resultat) {
+        long dureeFichier = System.nanoTime() - fichier.debut;
+        long cpuFichier = CPU_THREAD ? cpuThread() - fichier.debutCpu : 0;
+        fichier.evenement.end();
+
+        nbFichiers.increment();
+        if (fichier.depuisCache) {
+            nbFichiersCache.increment();
+        }
+        if (fichier.doublon) {
+            nbFichiersDoublons.increment();
+        }
+        octets.add(fichier.octets);
+        lignes.add(fichier.lignes);
+        tempsRegles.add(fichier.tempsRegles);
+        tempsFonctions.add(fichier.tempsFonctions);
+        tempsFichiers.add(dureeFichier);
+        cpuAnalyses.add(cpuFichier);
+
+        // Le verrou n'est pris que pour les fichiers plus lents que le plus rapide des fichiers conserves
+        if (dureeFichier > seuilPlusLents && nbPlusLents > 0) {
+            synchronized (plusLents) {
+                plusLents.add(new FichierLent(resultat.getChemin(), dureeFichier));
+                if (plusLents.size() > nbPlusLents) {
+                    plusLents.poll();
+                }
+                if (plusLents.size() == nbPlusLents) {
+                    seuilPlusLents = plusLents.peek().duree;
+                }
+            }
+        }
+
+        EvenementAnalyseFichier evenementFichier = fichier.evenement;
+        if (evenementFichier.shouldCommit()) {
+            evenementFichier.chemin = resultat.getChemin();
+            evenementFichier.octets = fichier.octets;
+            evenementFichier.lignes = fichier.lignes;
+            evenementFichier.dureeRegles = fichier.tempsRegles;
+            evenementFichier.dureeFonctions = fichier.tempsFonctions;
+            evenementFichier.tempsCpu = cpuFichier;
+            evenementFichier.depuisCache = fichier.depuisCache;
+            evenementFichier.doublon = fichier.doublon;
+            evenementFichier.commit();
+        }
+    }
+
+    /**
+     * Arrete la mesure du parcours et emet l'evenement JFR du parcours. Les appels suivants sont sans effet.
+     */
+    public synchronized void arreter() {
+        if (duree >= 0) {
+            return;
+        }
+        duree = System.nanoTime() - debut;
+        cpu = debutCpu >= 0 ? cpuProcessus() - debutCpu : -1;
+        evenement.end();
+        if (evenement.shouldCommit()) {
+            evenement.nbFichiers = nbFichiers.sum();
+            evenement.nbFichiersCache = nbFichiersCache.sum();
+            evenement.octets = octets.sum();
+            evenement.lignes = lignes.sum();
+            evenement.tempsCpu = cpu;
+            evenement.commit();
+        }
+    }
+
+    /**
+     * @return Le temps ecoule du parcours, en nanosecondes.
+     */
+    public synchronized long getDuree() {
+        return duree >= 0 ? duree : System.nanoTime() - debut;
+    }
+
+    /**
+     * @return Le temps CPU consomme par le processus pendant le parcours (analyses, GC, JIT), en nanosecondes,
+     * ou -1 s'il n'est pas disponible.
+     */
+    public synchronized long getCpuProcessus() {
+        return cpu;
+    }
+
+    /**
+     * @return Le temps CPU consomme par les analyses de fichiers, cumule sur tous les threads, en nanosecondes.
+     */
+    public long getCpuAnalyses() {
+        return cpuAnalyses.sum();
+    }
+
+    /**
+     * @return Le nombre de fichiers analyses, y compris ceux repris du cache.
+     */
+    public long getNbFichiers() {
+        return nbFichiers.sum();
+    }
+
+    /**
+     * @return Le nombre de fichiers repris du cache d'analyse, sans lecture.
+     */
+    public long getNbFichiersCache() {
+        return nbFichiersCache.sum();
+    }
+
+    /**
+     * @return Le nombre de fichiers identiques a un fichier deja analyse, dont le resultat a ete repris.
+     */
+    public long getNbFichiersDoublons() {
+        return nbFichiersDoublons.sum();
+    }
+
+    /**
+     * @return Le nombre d'octets lus.
+     */
+    public long getOctets() {
+        return octets.sum();
+    }
+
+    /**
+     * @return Le nombre de lignes lues.
+     */
+    public long getLignes() {
+        return lignes.sum();
+    }
+
+    /**
+     * @return Le temps cumule des regles ligne par ligne (shebang et regles ajoutees), en nanosecondes.
+     */
+    public long getTempsRegles() {
+        return tempsRegles.sum();
+    }
+
+    /**
+     * @return Le temps cumule de la reconnaissance des fonctions, de leurs docstrings et de leurs annotations de
+     * type (une seule passe du LexeurPython), en nanosecondes.
+     */
+    public long getTempsFonctions() {
+        return tempsFonctions.sum();
+    }
+
+    /**
+     * @return Le temps cumule de lecture, de decodage et de consultation du cache, en nanosecondes.
+     */
+    public long getTempsLecture() {
+        return tempsFichiers.sum() - tempsRegles.sum() - tempsFonctions.sum();
+    }
+
+    /**
+     * @return Le nombre de fichiers analyses par seconde.
+     */
+    public double getFichiersParSeconde() {
+        long d = getDuree();
+        return d > 0 ? getNbFichiers() * 1e9 / d : 0;
+    }
+
+    /**
+     * @return Les fichiers les plus lents, du plus lent au plus rapide.
+     */
+    public List<FichierLent> getPlusLents() {
+        List<FichierLent> liste;
+        synchronized (plusLents) {
+            liste = new ArrayList<>(plusLents);
+        }
+        liste.sort((a, b) -> Long.compare(b.duree, a.duree));
+        return liste;
+    }
+
+    /**
+     * Produit le rapport texte des mesures.
+     *
+     * @return Le rapport, ligne par ligne.
+     */
+    public String rapport() {
+        StringBuilder rapport = new StringBuilder("Mesures du parcours :\n");
+        rapport.append("\t Temps écoulé : ").append(millisecondes(getDuree()));
+        if (getCpuProcessus() >= 0) {
+            rapport.append(" ; temps CPU du processus : ").append(millisecondes(getCpuProcessus()));
+        }
+        rapport.append("\n\t Fichiers analysés : ").append(getNbFichiers())
+                .append(" (dont ").append(getNbFichiersCache()).append(" repris du cache et ")
+                .append(getNbFichiersDoublons()).append(" identiques à un fichier déjà analysé), ")
+                .append(String.format("%.1f", getFichiersParSeconde())).append(" fichiers/s\n");
+        rapport.append("\t Octets lus : ").append(getOctets()).append(" ; lignes lues : ").append(getLignes()).append('\n');
+        rapport.append("\t Temps cumulé sur tous les threads :\n");
+        rapport.append("\t\t règles (shebang...) : ").append(millisecondes(getTempsRegles())).append('\n');
+        rapport.append("\t\t fonctions, pydoc et annotations de type : ").append(millisecondes(getTempsFonctions())).append('\n');
+        rapport.append("\t\t lecture, décodage et cache : ").append(millisecondes(getTempsLecture())).append('\n');
+        if (CPU_THREAD) {
+            rapport.append("\t\t temps CPU des analyses : ").append(millisecondes(getCpuAnalyses())).append('\n');
+        }
+        List<FichierLent> lents = getPlusLents();
+        if (!lents.isEmpty()) {
+            rapport.append("\t Fichiers les plus lents :\n");
+            for (FichierLent lent : lents) {
+                rapport.append("\t\t ").append(millisecondes(lent.duree)).append("  ").append(lent.chemin).append('\n');
+            }
+        }
+        return rapport.toString();
+    }
+
+    private static String millisecondes(long nanos) {
+        return String.format("%.3f ms", nanos / 1e6);
+    }
+
+    private static long cpuThread() {
+        return CPU_THREAD ? THREADS.getCurrentThreadCpuTime() : 0;
+    }
+
+    private static long cpuProcessus() {
+        return ProcessHandle.current().info().totalCpuDuration().map(Duration::toNanos).orElse(-1L);
+    }
+
+    /**
+     * Compteurs d'un fichier, remplis par un seul thread pendant son analyse.
+     */
+    static final class Fichier {
+        final EvenementAnalyseFichier evenement = new EvenementAnalyseFichier();
+        long debut;
+        long debutCpu;
+        long octets;
+        long lignes;
+        long tempsRegles;
+        long tempsFonctions;
+        boolean depuisCache;
+        boolean doublon;
+    }
+
+    /**
+     * Fichier parmi les plus lents du parcours et sa duree d'analyse.
+     */
+    public static final class FichierLent implements Comparable<FichierLent> {
+        private final String chemin;
+        private final long duree;
+
+        FichierLent(String chemin, long duree) {
+            this.chemin = chemin;
+            this.duree = duree;
+        }
+
+        /**
+         * @return Le chemin du fichier.
+         */
+        public String getChemin() {
+            return chemin;
+        }
+
+        /**
+         * @return La duree d'analyse du fichier, lecture comprise, en nanosecondes.
+         */
+        public long getDuree() {
+            return duree;
+        }
+
+        @Override
+        public int compareTo(FichierLent autre) {
+            return Long.compare(duree, autre.duree);
+        }
+    }
+}
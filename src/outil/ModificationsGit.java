@@ -0,0 +1,175 @@
+package outil;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * La classe ModificationsGit limite l'analyse aux fichiers Python ajoutes ou modifies d'un depot git local, par
+ * rapport a une reference (branche, etiquette, commit) ou dans l'index (zone de preparation). La liste est donnee
+ * par git diff, sans acces reseau ; le temps d'analyse depend donc de la taille de la modification et non de
+ * celle du depot.
+ *
+ * <p>Sans l'index, les fichiers sont lus sur le disque, dans leur etat courant. Avec l'index, le contenu prepare
+ * pour le prochain commit est lu par un seul processus git cat-file --batch, fichier par fichier, au rythme de
+ * l'analyse.
+ *
+ *
+ * @author CHEBALLAH Jawed
+ * @author FWALA Yvon
+ */
+public class ModificationsGit implements SelectionFichiers {
+    /** Reference utilisee avec l'index lorsqu'aucune n'est precisee. */
+    public static final String REFERENCE_PAR_DEFAUT = "HEAD";
+
+    private final File dossier;
+    private final String reference;
+    private final boolean indexe;
+
+    /**
+     * Constructeur de la classe ModificationsGit.
+     *
+     * @param dossier   Le dossier analyse, dans un depot git ; seuls les fichiers de son arborescence sont retenus.
+     * @param reference La reference git a comparer.
+     * @param indexe    true pour comparer et lire le contenu de l'index, false pour les fichiers du disque.
+     */
+    public ModificationsGit(File dossier, String reference, boolean indexe) {
+        if (reference.startsWith("-")) {
+            throw new IllegalArgumentException("Référence git invalide '" + reference + "'.");
+        }
+        this.dossier = dossier.getAbsoluteFile();
+        this.reference = reference;
+        this.indexe = indexe;
+    }
+
+    /**
+     * Liste les fichiers Python ajoutes, copies, renommes ou modifies depuis la reference. Les fichiers supprimes
+     * ne sont pas retenus.
+     *
+     * @return Les chemins des fichiers, relatifs a la racine du depot, dans l'ordre de git diff.
+     * @throws IOException Si git est absent, si le dossier n'est pas dans un depot ou si la reference est inconnue.
+     */
+    public List<String> lister() throws IOException {
+        List<String> commande = new ArrayList<>(Arrays.asList("git", "diff", "--name-only", "-z", "--diff-filter=ACMR"));
+        if (indexe) {
+            commande.add("--cached");
+        }
+        commande.addAll(Arrays.asList(reference, "--", "."));
+
+        List<String> fichiers = new ArrayList<>();
+        for (String chemin : new String(executer(commande), StandardCharsets.UTF_8).split("\0")) {
+            if (chemin.endsWith(".py")) {
+                fichiers.add(chemin);
+            }
+        }
+        return fichiers;
+    }
+
+    /**
+     * Analyse en parallele les fichiers Python modifies et transmet chaque resultat a la sortie, dans l'ordre de
+     * git diff.
+     *
+     * @param parcours Le parcours qui execute les analyses.
+     * @param moteur   Le moteur utilise pour analyser le contenu lu dans l'index.
+     * @param sortie   La sortie qui recoit les resultats au fur et a mesure.
+     * @return Le nombre de fichiers analyses.
+     * @throws IOException Si git echoue ou si l'ecriture dans la sortie echoue.
+     */
+    @Override
+    public int analyser(ParcoursArborescence parcours, MoteurAnalyse moteur, SortieRapport sortie) throws IOException {
+        File racine = new File(new String(executer(List.of("git", "rev-parse", "--show-toplevel")), StandardCharsets.UTF_8).trim());
+        List<String> chemins = lister();
+
+        if (!indexe) {
+            List<File> fichiers = new ArrayList<>(chemins.size());
+            for (String chemin : chemins) {
+                fichiers.add(new File(racine, chemin));
+            }
+            parcours.parcourir(fichiers, sortie);
+            return fichiers.size();
+        }
+
+        Process git = demarrer(List.of("git", "cat-file", "--batch"));
+        try (OutputStream demandes = git.getOutputStream();
+             InputStream reponses = new BufferedInputStream(git.getInputStream())) {
+            int[] suivant = {0};
+            parcours.parcourir(() -> {
+                if (suivant[0] == chemins.size()) {
+                    return null;
+                }
+                String chemin = chemins.get(suivant[0]++);
+                // ":chemin" désigne la version du fichier enregistrée dans l'index
+                demandes.write((":" + chemin + "\n").getBytes(StandardCharsets.UTF_8));
+                demandes.flush();
+                byte[] contenu = lireObjet(reponses, chemin);
+                File fichier = new File(racine, chemin);
+                return () -> moteur.analyser(fichier.getPath(), fichier.getName(), contenu);
+            }, sortie);
+        }
+        attendre(git, "git cat-file");
+        return chemins.size();
+    }
+
+    /**
+     * Lit une reponse de git cat-file --batch : une ligne "objet blob taille", le contenu puis un saut de ligne.
+     */
+    private static byte[] lireObjet(InputStream reponses, String chemin) throws IOException {
+        ByteArrayOutputStream entete = new ByteArrayOutputStream();
+        int c;
+        while ((c = reponses.read()) != '\n') {
+            if (c < 0) {
+                throw new EOFException("git cat-file s'est arrêté avant de renvoyer " + chemin);
+            }
+            entete.write(c);
+        }
+        String[] champs = entete.toString(StandardCharsets.UTF_8).split(" ");
+        if (champs.length != 3 || !champs[1].equals("blob")) {
+            throw new IOException("Contenu indexé introuvable pour " + chemin + " : " + entete.toString(StandardCharsets.UTF_8));
+        }
+
+        byte[] contenu = reponses.readNBytes(Integer.parseInt(champs[2]));
+        if (contenu.length != Integer.parseInt(champs[2]) || reponses.read() != '\n') {
+            throw new EOFException("Contenu indexé incomplet pour " + chemin);
+        }
+        return contenu;
+    }
+
+    private byte[] executer(List<String> commande) throws IOException {
+        Process git = demarrer(commande);
+        byte[] sortie;
+        try (InputStream flux = git.getInputStream()) {
+            git.getOutputStream().close();
+            sortie = flux.readAllBytes();
+        }
+        attendre(git, String.join(" ", commande.subList(0, 2)));
+        return sortie;
+    }
+
+    private Process demarrer(List<String> commande) throws IOException {
+        // Les messages d'erreur de git sont transmis tels quels sur la sortie d'erreur
+        return new ProcessBuilder(commande)
+                .directory(dossier)
+                .redirectError(ProcessBuilder.Redirect.INHERIT)
+                .start();
+    }
+
+    private static void attendre(Process git, String commande) throws IOException {
+        try {
+            int code = git.waitFor();
+            if (code != 0) {
+                throw new IOException(commande + " a échoué (code " + code + ").");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException(commande + " a été interrompu.", e);
+        }
+    }
+}
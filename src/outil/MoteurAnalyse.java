@@ -0,0 +1,321 @@
+package outil;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.FutureTask;
+
+/**
+ * La classe MoteurAnalyse lit chaque fichier Python une seule fois et transmet chaque ligne a toutes les
+ * verifications (shebang, pydoc, annotations de type, nombre de fonctions). Le resultat obtenu est partage
+ * par Verificateur, Analyseur, Statistique, la ligne de commande et l'interface graphique. Les fichiers sont
+ * decodes par LecturePython, dans l'encodage qu'ils declarent ou en UTF-8.
+ *
+ * <p>Avec le dedoublonnage, chaque fichier est lu en entier et reconnu a l'empreinte de ses octets : un contenu
+ * deja rencontre n'est pas analyse une seconde fois, son resultat est repris sous le chemin du nouveau fichier.
+ * Deux copies analysees en meme temps par deux threads ne sont analysees qu'une fois, le second thread attendant le
+ * resultat du premier.
+ *
+ * <p>L'analyse peut aussi se faire en deux temps, prelire(File) puis analyser(Lecture) : la premiere etape ne
+ * fait que des entrees/sorties (cache, lecture du contenu) et la seconde que du calcul, ce qui permet a
+ * ParcoursArborescence de les confier a deux groupes de threads distincts.
+ *
+ *
+ * @author CHEBALLAH Jawed
+ * @author FWALA Yvon
+ */
+public class MoteurAnalyse {
+    /** Nombre maximal de contenus distincts retenus par le dedoublonnage, pour borner la memoire utilisee. */
+    static final int CONTENUS_MAX = 1 << 16;
+    /** Taille maximale d'un fichier lu par prelire ; un fichier plus gros est lu par le thread d'analyse. */
+    static final int PRELECTURE_MAX = 256 * 1024;
+
+    private final CacheAnalyse cache;
+    private final Mesures mesures;
+    private final Map<Long, FutureTask<ResultatFichier>> contenus;
+
+    /**
+     * Constructeur par defaut de la classe MoteurAnalyse.
+     */
+    public MoteurAnalyse() {
+        this(null);
+    }
+
+    /**
+     * Constructeur de la classe MoteurAnalyse avec un cache d'analyse.
+     *
+     * @param cache Le cache a consulter et a completer, ou null pour toujours lire les fichiers.
+     */
+    public MoteurAnalyse(CacheAnalyse cache) {
+        this(cache, null);
+    }
+
+    /**
+     * Constructeur de la classe MoteurAnalyse avec un cache d'analyse et la mesure de chaque fichier analyse.
+     *
+     * @param cache   Le cache a consulter et a completer, ou null pour toujours lire les fichiers.
+     * @param mesures Les mesures a completer (option --metrics), ou null pour ne rien mesurer.
+     */
+    public MoteurAnalyse(CacheAnalyse cache, Mesures mesures) {
+        this(cache, mesures, false);
+    }
+
+    /**
+     * Constructeur de la classe MoteurAnalyse avec un cache d'analyse, la mesure de chaque fichier et le
+     * dedoublonnage des fichiers de contenu identique.
+     *
+     * @param cache        Le cache a consulter et a completer, ou null pour toujours lire les fichiers.
+     * @param mesures      Les mesures a completer (option --metrics), ou null pour ne rien mesurer.
+     * @param dedoublonner true pour n'analyser qu'une fois chaque contenu distinct.
+     */
+    public MoteurAnalyse(CacheAnalyse cache, Mesures mesures, boolean dedoublonner) {
+        this.cache = cache;
+        this.mesures = mesures;
+        this.contenus = dedoublonner ? new ConcurrentHashMap<>() : null;
+    }
+
+    /**
+     * Analyse le fichier Python specifie en une seule lecture.
+     *
+     * @param fichier Le fichier a analyser.
+     * @return Le resultat de toutes les verifications ; en cas d'erreur de lecture, le resultat porte le message d'erreur.
+     */
+    public ResultatFichier analyser(File fichier) {
+        if (mesures == null) {
+            return analyser(fichier, null);
+        }
+        Mesures.Fichier mesure = mesures.commencer();
+        ResultatFichier resultat = analyser(fichier, mesure);
+        mesures.terminer(mesure, resultat);
+        return resultat;
+    }
+
+    /**
+     * Analyse le fichier Python dont le chemin est specifie.
+     *
+     * @param path Le chemin du fichier a analyser.
+     * @return Le resultat de toutes les verifications.
+     */
+    public ResultatFichier analyser(String path) {
+        return analyser(new File(path));
+    }
+
+    /**
+     * Analyse un contenu Python deja lu, par exemple la version d'un fichier enregistree dans l'index git. Le
+     * cache n'est pas consulte : le contenu peut differer du fichier sur le disque.
+     *
+     * @param chemin  Le chemin du fichier, repris dans le resultat.
+     * @param nom     Le nom du fichier, repris dans le resultat.
+     * @param contenu Le contenu du fichier, decode comme un fichier lu sur le disque.
+     * @return Le resultat de toutes les verifications.
+     */
+    public ResultatFichier analyser(String chemin, String nom, byte[] contenu) {
+        Mesures.Fichier mesure = mesures != null ? mesures.commencer() : null;
+        ResultatFichier resultat = new ResultatFichier(chemin, nom);
+
+        try {
+            LecturePython.analyser(contenu, resultat, new PasseAnalyse(resultat, mesure));
+        } catch (IOException e) {
+            resultat.erreur = e.getMessage();
+        }
+
+        if (mesure != null) {
+            mesure.octets = contenu.length;
+            mesures.terminer(mesure, resultat);
+        }
+        return resultat;
+    }
+
+    /**
+     * Premiere etape d'une analyse en deux temps : consulte le cache et lit le contenu du fichier, sans l'analyser.
+     * Les erreurs de lecture sont conservees pour etre reportees dans le resultat par analyser(Lecture).
+     *
+     * @param fichier Le fichier a lire.
+     * @return Le resultat trouve dans le cache ou le contenu lu.
+     */
+    Lecture prelire(File fichier) {
+        Lecture lecture = new Lecture(fichier);
+        // La taille et la date sont relevées avant la lecture, comme pour une analyse en un temps
+        lecture.taille = fichier.length();
+        if (cache != null) {
+            lecture.date = fichier.lastModified();
+            lecture.depuisCache = cache.chercher(fichier, lecture.taille, lecture.date);
+            if (lecture.depuisCache != null) {
+                return lecture;
+            }
+        }
+
+        if (lecture.taille <= PRELECTURE_MAX) {
+            try {
+                lecture.contenu = lireOctets(fichier);
+            } catch (IOException e) {
+                lecture.erreur = e;
+            }
+        }
+        return lecture;
+    }
+
+    /**
+     * Seconde etape d'une analyse en deux temps : analyse le contenu lu par prelire(File). Un fichier trop gros
+     * pour avoir ete lu d'avance est lu ici, comme par analyser(File). Avec --metrics, la duree mesuree ne
+     * comprend donc que cette etape.
+     *
+     * @param lecture Le resultat de prelire(File).
+     * @return Le resultat de toutes les verifications.
+     */
+    ResultatFichier analyser(Lecture lecture) {
+        Mesures.Fichier mesure = mesures != null ? mesures.commencer() : null;
+        ResultatFichier resultat = lecture.depuisCache;
+
+        if (resultat != null) {
+            if (mesure != null) {
+                mesure.depuisCache = true;
+            }
+        } else {
+            File fichier = lecture.fichier;
+            if (lecture.contenu == null && lecture.erreur == null) {
+                resultat = lire(fichier, mesure);
+            } else {
+                resultat = new ResultatFichier(fichier.getAbsolutePath(), fichier.getName());
+                try {
+                    if (lecture.erreur != null) {
+                        throw lecture.erreur;
+                    }
+                    resultat = analyser(resultat, lecture.contenu, mesure);
+                } catch (IOException e) {
+                    resultat.erreur = e.getMessage();
+                }
+            }
+            if (cache != null) {
+                cache.memoriser(fichier, lecture.taille, lecture.date, resultat);
+            }
+        }
+
+        if (mesure != null) {
+            mesures.terminer(mesure, resultat);
+        }
+        return resultat;
+    }
+
+    /**
+     * Lit tout le contenu d'un fichier. Les bancs d'essai redefinissent cette methode pour simuler un systeme de
+     * fichiers lent (montage reseau) en ajoutant une latence a chaque lecture.
+     *
+     * @param fichier Le fichier a lire.
+     * @return Le contenu du fichier.
+     * @throws IOException Si le fichier ne peut pas etre lu.
+     */
+    protected byte[] lireOctets(File fichier) throws IOException {
+        try (FileInputStream flux = new FileInputStream(fichier)) {
+            return flux.readAllBytes();
+        }
+    }
+
+    private ResultatFichier analyser(File fichier, Mesures.Fichier mesure) {
+        if (cache == null) {
+            return lire(fichier, mesure);
+        }
+
+        // La taille et la date sont relevées avant la lecture : une modification pendant l'analyse invalide l'entrée
+        long taille = fichier.length();
+        long date = fichier.lastModified();
+        ResultatFichier resultat = cache.chercher(fichier, taille, date);
+
+        if (resultat == null) {
+            resultat = lire(fichier, mesure);
+            cache.memoriser(fichier, taille, date, resultat);
+        } else if (mesure != null) {
+            mesure.depuisCache = true;
+        }
+        return resultat;
+    }
+
+    private ResultatFichier lire(File fichier, Mesures.Fichier mesure) {
+        ResultatFichier resultat = new ResultatFichier(fichier.getAbsolutePath(), fichier.getName());
+
+        try {
+            long taille = fichier.length();
+            // Les très gros fichiers sont projetés en mémoire et parcourus octet par octet
+            if (LectureProjetee.applicable(taille)) {
+                LectureProjetee.lire(fichier, resultat, new PasseAnalyse(resultat, mesure));
+            } else {
+                resultat = analyser(resultat, lireOctets(fichier), mesure);
+            }
+            if (mesure != null) {
+                mesure.octets = taille;
+            }
+        } catch (IOException e) {
+            resultat.erreur = e.getMessage();
+        }
+
+        return resultat;
+    }
+
+    private ResultatFichier analyser(ResultatFichier resultat, byte[] contenu, Mesures.Fichier mesure) throws IOException {
+        if (mesure != null) {
+            mesure.octets = contenu.length;
+        }
+        if (contenus != null) {
+            return dedoublonner(resultat, contenu, mesure);
+        }
+        LecturePython.analyser(contenu, resultat, new PasseAnalyse(resultat, mesure));
+        return resultat;
+    }
+
+    /**
+     * Analyse un contenu, ou reprend le resultat d'un contenu identique deja analyse.
+     */
+    private ResultatFichier dedoublonner(ResultatFichier resultat, byte[] contenu, Mesures.Fichier mesure) throws IOException {
+        Long cle = Empreinte.octets(contenu);
+        FutureTask<ResultatFichier> analyse = contenus.get(cle);
+        if (analyse == null) {
+            FutureTask<ResultatFichier> nouvelle = new FutureTask<>(() -> {
+                LecturePython.analyser(contenu, resultat, new PasseAnalyse(resultat, mesure));
+                return resultat;
+            });
+            // Au-delà de CONTENUS_MAX contenus, les nouveaux contenus sont analysés sans être retenus
+            analyse = contenus.size() < CONTENUS_MAX ? contenus.putIfAbsent(cle, nouvelle) : null;
+            if (analyse == null) {
+                nouvelle.run();
+                analyse = nouvelle;
+            }
+        }
+
+        ResultatFichier original;
+        try {
+            original = analyse.get();
+        } catch (ExecutionException e) {
+            throw new IOException(e.getCause().getMessage(), e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Analyse interrompue.", e);
+        }
+        if (original == resultat) {
+            return resultat;
+        }
+        if (mesure != null) {
+            mesure.doublon = true;
+        }
+        return original.copier(resultat.getChemin(), resultat.getNom());
+    }
+
+    /**
+     * Resultat de prelire(File) : le resultat trouve dans le cache, le contenu lu, l'erreur de lecture, ou rien
+     * pour un fichier trop gros, qui sera lu par le thread d'analyse.
+     */
+    static final class Lecture {
+        final File fichier;
+        long taille;
+        long date;
+        ResultatFichier depuisCache;
+        byte[] contenu;
+        IOException erreur;
+
+        Lecture(File fichier) {
+            this.fichier = fichier;
+        }
+    }
+}
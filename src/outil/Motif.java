@@ -0,0 +1,76 @@
+package outil;
+
+/**
+ * La classe Motif decrit un texte recherche par une regle dans chaque ligne d'un fichier Python. Tous les motifs
+ * des regles actives sont compiles dans un seul automate (voir JeuRegles) : une ligne est parcourue une seule fois,
+ * quel que soit le nombre de motifs.
+ *
+ * <p>Un motif peut etre cherche n'importe ou dans la ligne, comme mot entier (non precede ni suivi d'une lettre,
+ * d'un chiffre ou de '_') ou seulement en tete de ligne, apres les espaces de debut.
+ *
+ *
+ * @author CHEBALLAH Jawed
+ * @author FWALA Yvon
+ */
+public final class Motif {
+    static final int TEXTE = 0;
+    static final int MOT = 1;
+    static final int PREFIXE = 2;
+
+    private final String texte;
+    private final int genre;
+
+    private Motif(String texte, int genre) {
+        if (texte.isEmpty()) {
+            throw new IllegalArgumentException("Un motif ne peut pas être vide.");
+        }
+        this.texte = texte;
+        this.genre = genre;
+    }
+
+    /**
+     * Motif cherche n'importe ou dans la ligne.
+     *
+     * @param texte Le texte recherche.
+     * @return Le motif.
+     */
+    public static Motif texte(String texte) {
+        return new Motif(texte, TEXTE);
+    }
+
+    /**
+     * Motif cherche comme mot entier, par exemple un mot-cle ou un nom de fonction.
+     *
+     * @param texte Le mot recherche.
+     * @return Le motif.
+     */
+    public static Motif mot(String texte) {
+        return new Motif(texte, MOT);
+    }
+
+    /**
+     * Motif cherche seulement au debut de la ligne, espaces de debut ignores.
+     *
+     * @param texte Le debut de ligne recherche.
+     * @return Le motif.
+     */
+    public static Motif prefixe(String texte) {
+        return new Motif(texte, PREFIXE);
+    }
+
+    /**
+     * @return Le texte recherche.
+     */
+    public String getTexte() {
+        return texte;
+    }
+
+    int getGenre() {
+        return genre;
+    }
+
+    @Override
+    public String toString() {
+        return (genre == PREFIXE ? "^" : genre == MOT ? "\\b" : "") + texte;
+    }
+}
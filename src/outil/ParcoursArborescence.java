@@ -0,0 +1,335 @@
+package outil;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Path;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * La classe ParcoursArborescence parcourt recursivement un dossier et analyse ses fichiers Python (.py) en
+ * parallele. Les sous-arborescences ignorees (environnements virtuels, .git, motifs des .gitignore...) sont
+ * elaguees par un FiltreIgnores sans etre ouvertes. Chaque fichier est analyse par une tache fork-join ; les resultats sont transmis a une SortieRapport
+ * dans l'ordre du parcours sequentiel des qu'ils sont prets. Seule une fenetre bornee de taches en cours est
+ * conservee, de sorte que la memoire utilisee ne depend pas de la taille de l'arborescence.
+ *
+ * <p>Avec la prelecture (systemes de fichiers reseau, NFS ou SSHFS, ou chaque ouverture coute un aller-retour), le
+ * parcours devient un pipeline en quatre etapes : le parcours des dossiers, la lecture des fichiers par un groupe de
+ * threads dedies qui peuvent attendre le disque ou le reseau par centaines, l'analyse par les threads fork-join et
+ * l'ecriture ordonnee. La fenetre bornee sert de file de prelecture : elle limite le nombre de contenus lus mais pas
+ * encore ecrits, et donc la memoire utilisee.
+ *
+ *
+ * @author CHEBALLAH Jawed
+ * @author FWALA Yvon
+ */
+public class ParcoursArborescence {
+    /** Nombre de taches en attente autorisees par thread avant d'ecrire le resultat le plus ancien. */
+    private static final int TACHES_PAR_THREAD = 4;
+    /** Taille de pile des threads de lecture, qui ne font qu'attendre les entrees/sorties. */
+    private static final long PILE_LECTURE = 256 * 1024;
+
+    private final int parallelisme;
+    private final int lectures;
+    private final MoteurAnalyse moteur;
+    private final FiltreIgnores filtre;
+
+    /**
+     * Constructeur de la classe ParcoursArborescence. Les fichiers de contenu identique ne sont analyses qu'une fois.
+     *
+     * @param parallelisme Le nombre de threads utilises pour l'analyse (1 pour un parcours sequentiel).
+     */
+    public ParcoursArborescence(int parallelisme) {
+        this(parallelisme, new MoteurAnalyse(null, null, true));
+    }
+
+    /**
+     * Constructeur de la classe ParcoursArborescence avec un moteur d'analyse specifique (avec cache par exemple).
+     *
+     * @param parallelisme Le nombre de threads utilises pour l'analyse (1 pour un parcours sequentiel).
+     * @param moteur       Le moteur utilise pour analyser chaque fichier.
+     */
+    public ParcoursArborescence(int parallelisme, MoteurAnalyse moteur) {
+        this(parallelisme, moteur, FiltreIgnores.parDefaut());
+    }
+
+    /**
+     * Constructeur de la classe ParcoursArborescence avec un moteur d'analyse et des regles d'exclusion specifiques.
+     *
+     * @param parallelisme Le nombre de threads utilises pour l'analyse (1 pour un parcours sequentiel).
+     * @param moteur       Le moteur utilise pour analyser chaque fichier.
+     * @param filtre       Les dossiers et fichiers a ne pas parcourir.
+     */
+    public ParcoursArborescence(int parallelisme, MoteurAnalyse moteur, FiltreIgnores filtre) {
+        this(parallelisme, 0, moteur, filtre);
+    }
+
+    /**
+     * Constructeur de la classe ParcoursArborescence avec prelecture : les fichiers sont lus par un groupe de threads
+     * distinct de celui qui les analyse.
+     *
+     * @param parallelisme Le nombre de threads utilises pour l'analyse (1 pour un parcours sequentiel).
+     * @param lectures     Le nombre de lectures de fichiers simultanees, ou 0 pour lire chaque fichier dans le
+     *                     thread qui l'analyse.
+     * @param moteur       Le moteur utilise pour analyser chaque fichier.
+     * @param filtre       Les dossiers et fichiers a ne pas parcourir.
+     */
+    public ParcoursArborescence(int parallelisme, int lectures, MoteurAnalyse moteur, FiltreIgnores filtre) {
+        if (parallelisme < 1) {
+            throw new IllegalArgumentException("Le nombre de threads doit etre superieur ou egal a 1 : " + parallelisme);
+        }
+        if (lectures < 0) {
+            throw new IllegalArgumentException("Le nombre de lectures simultanees doit etre positif : " + lectures);
+        }
+        this.parallelisme = parallelisme;
+        this.lectures = lectures;
+        this.moteur = moteur;
+        this.filtre = filtre;
+    }
+
+    /**
+     * @return Les regles d'exclusion appliquees pendant le parcours.
+     */
+    public FiltreIgnores getFiltre() {
+        return filtre;
+    }
+
+    /**
+     * Parcourt le dossier specifie, analyse tous les fichiers Python de son arborescence et transmet chaque
+     * resultat a la sortie, dans l'ordre du parcours sequentiel.
+     *
+     * @param dossier Le dossier a parcourir.
+     * @param sortie  La sortie qui recoit les resultats au fur et a mesure.
+     * @throws IOException Si l'ecriture dans la sortie echoue.
+     */
+    public void parcourir(File dossier, SortieRapport sortie) throws IOException {
+        ForkJoinPool pool = new ForkJoinPool(parallelisme);
+        ExecutorService lecteurs = lecteurs();
+        try {
+            Parcours parcours = new Parcours(pool, lecteurs, sortie);
+            filtre.parcourir(dossier.toPath(), parcours);
+            parcours.vider();
+        } finally {
+            pool.shutdownNow();
+            if (lecteurs != null) {
+                lecteurs.shutdownNow();
+            }
+        }
+    }
+
+    /**
+     * Analyse en parallele les fichiers specifies (les fichiers modifies d'un depot git par exemple) et transmet
+     * chaque resultat a la sortie, dans l'ordre de la liste.
+     *
+     * @param fichiers Les fichiers Python a analyser.
+     * @param sortie   La sortie qui recoit les resultats au fur et a mesure.
+     * @throws IOException Si l'ecriture dans la sortie echoue.
+     */
+    public void parcourir(List<File> fichiers, SortieRapport sortie) throws IOException {
+        ForkJoinPool pool = new ForkJoinPool(parallelisme);
+        ExecutorService lecteurs = lecteurs();
+        try {
+            Parcours parcours = new Parcours(pool, lecteurs, sortie);
+            for (File fichier : fichiers) {
+                parcours.ajouter(new Element(parcours.analyser(fichier), null));
+            }
+            parcours.vider();
+        } finally {
+            pool.shutdownNow();
+            if (lecteurs != null) {
+                lecteurs.shutdownNow();
+            }
+        }
+    }
+
+    /**
+     * Execute en parallele les analyses fournies par la source et transmet chaque resultat a la sortie, dans
+     * l'ordre de la source. La source n'est interrogee que lorsqu'une place se libere dans la fenetre.
+     *
+     * @param source La source des analyses a executer.
+     * @param sortie La sortie qui recoit les resultats au fur et a mesure.
+     * @throws IOException Si la source ou l'ecriture dans la sortie echoue.
+     */
+    void parcourir(SourceAnalyses source, SortieRapport sortie) throws IOException {
+        ForkJoinPool pool = new ForkJoinPool(parallelisme);
+        try {
+            Parcours parcours = new Parcours(pool, null, sortie);
+            Callable<ResultatFichier> analyse;
+            while ((analyse = source.suivante()) != null) {
+                parcours.ajouter(new Element(pool.submit(analyse), null));
+            }
+            parcours.vider();
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    /**
+     * Cree le groupe de threads de lecture, ou null sans prelecture. Les threads sont des threads systeme : la
+     * version de Java visee n'a pas de threads virtuels.
+     */
+    private ExecutorService lecteurs() {
+        if (lectures == 0) {
+            return null;
+        }
+        AtomicInteger numero = new AtomicInteger();
+        return Executors.newFixedThreadPool(lectures, tache -> {
+            Thread thread = new Thread(null, tache, "lecture-" + numero.incrementAndGet(), PILE_LECTURE);
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Source d'analyses a executer dans l'ordre, par exemple des contenus lus un a un depuis l'index git.
+     */
+    interface SourceAnalyses {
+
+        /**
+         * @return L'analyse suivante, ou null s'il n'y en a plus.
+         * @throws IOException Si la lecture du fichier suivant echoue.
+         */
+        Callable<ResultatFichier> suivante() throws IOException;
+    }
+
+    /**
+     * Etat d'un parcours : la fenetre ordonnee des elements pas encore ecrits. Comme visiteur de l'arborescence,
+     * il tient pour chaque dossier ouvert l'indicateur "contient un fichier Python".
+     */
+    private class Parcours extends SimpleFileVisitor<Path> {
+        private final ForkJoinPool pool;
+        private final ExecutorService lecteurs;
+        private final SortieRapport sortie;
+        private final Deque<Element> fenetre = new ArrayDeque<>();
+        private final int tailleFenetre;
+        private final Deque<Boolean> trouves = new ArrayDeque<>();
+
+        Parcours(ForkJoinPool pool, ExecutorService lecteurs, SortieRapport sortie) {
+            this.pool = pool;
+            this.lecteurs = lecteurs;
+            this.sortie = sortie;
+            // Avec la prélecture, la fenêtre laisse assez de place pour que toutes les lectures restent occupées
+            this.tailleFenetre = parallelisme * TACHES_PAR_THREAD + (lecteurs != null ? 2 * lectures : 0);
+        }
+
+        @Override
+        public FileVisitResult preVisitDirectory(Path dossier, BasicFileAttributes attributs) {
+            trouves.push(Boolean.FALSE);
+            return FileVisitResult.CONTINUE;
+        }
+
+        @Override
+        public FileVisitResult visitFile(Path chemin, BasicFileAttributes attributs) throws IOException {
+            if (chemin.getFileName().toString().endsWith(".py")) {
+                ajouter(new Element(analyser(chemin.toFile()), null));
+                trouves.pop();
+                trouves.push(Boolean.TRUE);
+            }
+            return FileVisitResult.CONTINUE;
+        }
+
+        @Override
+        public FileVisitResult visitFileFailed(Path chemin, IOException e) {
+            // Fichier ou dossier illisible : il est ignoré, comme un dossier vide
+            return FileVisitResult.CONTINUE;
+        }
+
+        @Override
+        public FileVisitResult postVisitDirectory(Path dossier, IOException e) throws IOException {
+            if (trouves.pop()) {
+                // Le dossier parent contient lui aussi un fichier Python
+                if (!trouves.isEmpty()) {
+                    trouves.pop();
+                    trouves.push(Boolean.TRUE);
+                }
+            } else {
+                ajouter(new Element(null, dossier.toFile()));
+            }
+            return FileVisitResult.CONTINUE;
+        }
+
+        /**
+         * Lance l'analyse d'un fichier : directement dans un thread d'analyse, ou, avec la prelecture, lecture par
+         * un thread de lecture puis analyse du contenu lu par un thread d'analyse.
+         */
+        Future<ResultatFichier> analyser(File fichier) {
+            if (lecteurs == null) {
+                return pool.submit(() -> moteur.analyser(fichier));
+            }
+            return CompletableFuture.supplyAsync(() -> moteur.prelire(fichier), lecteurs)
+                    .thenApplyAsync(lecture -> moteur.analyser(lecture), pool);
+        }
+
+        /**
+         * Ecrit tous les elements restants de la fenetre.
+         */
+        void vider() throws IOException {
+            while (!fenetre.isEmpty()) {
+                ecrire(fenetre.removeFirst());
+            }
+            sortie.flush();
+        }
+
+        private void ajouter(Element element) throws IOException {
+            fenetre.addLast(element);
+            while (fenetre.size() > tailleFenetre) {
+                ecrire(fenetre.removeFirst());
+            }
+        }
+
+        private void ecrire(Element element) throws IOException {
+            if (element.analyse == null) {
+                sortie.dossierSansPython(element.dossierVide);
+                return;
+            }
+            // Rend visible ce qui est deja pret avant d'attendre le prochain resultat
+            if (!element.analyse.isDone()) {
+                sortie.flush();
+            }
+            sortie.fichier(attendre(element.analyse));
+        }
+    }
+
+    private static ResultatFichier attendre(Future<ResultatFichier> analyse) throws IOException {
+        try {
+            return analyse.get();
+        } catch (ExecutionException e) {
+            // Les erreurs de lecture sont dans le résultat : une exception ici est une erreur de programmation
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            if (e.getCause() instanceof Error) {
+                throw (Error) e.getCause();
+            }
+            throw new IOException(e.getCause().getMessage(), e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Parcours interrompu.", e);
+        }
+    }
+
+    /**
+     * Element de la fenetre : l'analyse d'un fichier en cours ou un dossier sans fichier Python.
+     */
+    private static class Element {
+        final Future<ResultatFichier> analyse;
+        final File dossierVide;
+
+        Element(Future<ResultatFichier> analyse, File dossierVide) {
+            this.analyse = analyse;
+            this.dossierVide = dossierVide;
+        }
+    }
+}
@@ -0,0 +1,83 @@
+package outil;
+
+/**
+ * La classe PasseAnalyse applique toutes les verifications a chaque ligne d'un fichier Python lors d'une seule
+ * lecture. Les regles ligne par ligne (shebang et regles ajoutees) sont appliquees par l'automate du JeuRegles
+ * courant ; les fonctions, leurs docstrings et leurs annotations sont reconnues par un LexeurPython qui suit
+ * l'indentation et les chaines entre les lignes.
+ *
+ *
+ * @author CHEBALLAH Jawed
+ * @author FWALA Yvon
+ */
+class PasseAnalyse {
+    private final ResultatFichier resultat;
+    private final LexeurPython lexeur;
+    private final Mesures.Fichier mesure;
+    private final JeuRegles regles = JeuRegles.courant();
+    private int numeroLigne = 0;
+
+    /**
+     * Constructeur de la classe PasseAnalyse.
+     *
+     * @param resultat Le resultat a remplir au fil des lignes.
+     */
+    PasseAnalyse(ResultatFichier resultat) {
+        this(resultat, null);
+    }
+
+    /**
+     * Constructeur de la classe PasseAnalyse avec mesure du temps de chaque verification (option --metrics).
+     *
+     * @param resultat Le resultat a remplir au fil des lignes.
+     * @param mesure   Les compteurs du fichier, ou null pour ne rien mesurer.
+     */
+    PasseAnalyse(ResultatFichier resultat, Mesures.Fichier mesure) {
+        this.resultat = resultat;
+        this.lexeur = new LexeurPython(resultat);
+        this.mesure = mesure;
+    }
+
+    /**
+     * Applique toutes les verifications a une ligne du fichier.
+     *
+     * @param ligne La ligne lue, sans son caractere de fin de ligne.
+     */
+    void analyserLigne(CharSequence ligne) {
+        numeroLigne++;
+        if (mesure != null) {
+            analyserLigneMesuree(ligne);
+            return;
+        }
+
+        // Shebang et autres règles : un seul parcours de la ligne par l'automate de toutes les règles
+        regles.analyserLigne(ligne, numeroLigne, resultat);
+
+        // Fonctions, docstrings et annotations de type
+        lexeur.analyserLigne(ligne);
+    }
+
+    /**
+     * Termine la passe apres la derniere ligne du fichier.
+     */
+    void terminer() {
+        long debut = mesure != null ? System.nanoTime() : 0;
+        lexeur.terminer();
+        if (mesure != null) {
+            mesure.tempsFonctions += System.nanoTime() - debut;
+        }
+    }
+
+    // Mêmes vérifications que analyserLigne, chacune chronométrée
+    private void analyserLigneMesuree(CharSequence ligne) {
+        long debut = System.nanoTime();
+        regles.analyserLigne(ligne, numeroLigne, resultat);
+        long milieu = System.nanoTime();
+        lexeur.analyserLigne(ligne);
+        long fin = System.nanoTime();
+
+        mesure.tempsRegles += milieu - debut;
+        mesure.tempsFonctions += fin - milieu;
+        mesure.lignes++;
+    }
+}
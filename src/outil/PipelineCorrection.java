@@ -0,0 +1,289 @@
+package outil;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.CharacterCodingException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.AclFileAttributeView;
+import java.nio.file.attribute.PosixFileAttributeView;
+import java.nio.file.attribute.PosixFileAttributes;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * La classe PipelineCorrection applique toutes les corrections demandees a un fichier Python (ajout du shebang et
+ * de la declaration d'encodage, squelettes de commentaires pydoc) en une seule lecture, ligne par ligne a travers
+ * des tampons de taille fixe. Le resultat est ecrit dans un fichier temporaire du meme dossier puis deplace
+ * atomiquement a la place du fichier : une interruption ne laisse jamais un fichier tronque. Si aucune correction
+ * ne s'applique, le fichier n'est pas reecrit et sa date de modification ne change pas ; une fonction qui a deja
+ * une docstring ne recoit pas de squelette, de sorte qu'une seconde correction ne modifie rien.
+ *
+ * <p>Le fichier est relu et reecrit dans son propre encodage (declaration PEP 263, sinon UTF-8, BOM conserve) ;
+ * un fichier qui n'est pas valide dans cet encodage n'est pas modifie. La declaration d'encodage ajoutee reprend
+ * l'encodage declare par le fichier.
+ *
+ *
+ * @author CHEBALLAH Jawed
+ * @author FWALA Yvon
+ */
+public class PipelineCorrection {
+    private static final String SHEBANG = "#!/usr/bin/env python";
+    private static final String UTF8 = "# -*- coding: utf-8 -*-";
+    private static final int TAILLE_TAMPON = 64 * 1024;
+    /** Nombre maximal de lignes vides ou de commentaires gardees entre une signature et sa premiere instruction. */
+    private static final int SUIVANTES_MAX = 256;
+
+    private final boolean ajouterShebang;
+    private final String nom;
+    private final String version;
+
+    /**
+     * Constructeur de la classe PipelineCorrection.
+     *
+     * @param ajouterShebang true pour ajouter les deux premieres lignes de commentaire manquantes.
+     * @param nom            Le nom de l'auteur des commentaires pydoc, ou null pour ne pas en ajouter.
+     * @param version        La version des commentaires pydoc.
+     */
+    public PipelineCorrection(boolean ajouterShebang, String nom, String version) {
+        this.ajouterShebang = ajouterShebang;
+        this.nom = nom;
+        this.version = version;
+    }
+
+    /**
+     * Applique les corrections au fichier specifie.
+     *
+     * @param fichier Le fichier a corriger.
+     * @return Le bilan des corrections appliquees.
+     * @throws IOException Si la lecture ou l'ecriture du fichier echoue, ou si son contenu n'est pas valide dans
+     *                     son encodage ; le fichier d'origine est alors intact.
+     */
+    public Bilan corriger(File fichier) throws IOException {
+        // Un lien symbolique est suivi : c'est sa cible qui est corrigée, le lien reste en place
+        Path original = fichier.toPath().toRealPath();
+        Path temporaire = Files.createTempFile(original.toAbsolutePath().getParent(), "." + fichier.getName(), ".tmp");
+        Bilan bilan = new Bilan();
+
+        try {
+            try (BufferedInputStream flux = new BufferedInputStream(new FileInputStream(fichier), TAILLE_TAMPON)) {
+                LecturePython.Encodage encodage = LecturePython.encodage(flux);
+                // Le décodage et l'encodage sont stricts : un caractère invalide arrête la correction
+                try (BufferedReader br = LecturePython.lecteur(flux, encodage, true);
+                     Writer writer = new BufferedWriter(new OutputStreamWriter(new FileOutputStream(temporaire.toFile()),
+                             encodage.getCharset().newEncoder()), TAILLE_TAMPON)) {
+                    if (encodage.isBom()) {
+                        writer.write('\uFEFF');
+                    }
+                    copier(br, writer, declaration(encodage), bilan);
+                }
+            } catch (CharacterCodingException e) {
+                throw new IOException("Le fichier " + fichier.getName() + " n'est pas valide dans son encodage, il n'a pas été corrigé.", e);
+            }
+
+            if (bilan.estModifie()) {
+                remplacer(original, temporaire);
+            }
+        } finally {
+            Files.deleteIfExists(temporaire);
+        }
+
+        return bilan;
+    }
+
+    // Un fichier sans déclaration reçoit la déclaration utf-8 ; sinon l'encodage qu'il déclare déjà est repris
+    private static String declaration(LecturePython.Encodage encodage) {
+        return encodage.isDeclare() ? "# -*- coding: " + encodage.getNom() + " -*-" : UTF8;
+    }
+
+    private void copier(BufferedReader br, Writer writer, String declaration, Bilan bilan) throws IOException {
+        String ligne1 = br.readLine();
+        String ligne2 = br.readLine();
+
+        // Verifier si les deux premieres lignes sont presentes
+        if (ajouterShebang) {
+            if (ligne1 != null && ligne2 != null && ligne1.equals(SHEBANG) && ligne2.equals(declaration)) {
+                bilan.messageShebang = "Les deux premières lignes de commentaire sont déjà présentes.\n";
+            } else {
+                bilan.messageShebang = "Ajout des deux premières lignes de commentaire.\n";
+                bilan.shebangAjoute = true;
+                writer.write(SHEBANG + "\n" + declaration + "\n");
+            }
+        }
+
+        Signature signature = new Signature();
+        ecrireLigne(writer, ligne1, signature, bilan);
+        ecrireLigne(writer, ligne2, signature, bilan);
+        String ligne;
+        while ((ligne = br.readLine()) != null) {
+            ecrireLigne(writer, ligne, signature, bilan);
+        }
+        // Une signature en fin de fichier n'a pas de corps, donc pas de docstring
+        completer(writer, signature, false, bilan);
+    }
+
+    private void ecrireLigne(Writer writer, String ligne, Signature signature, Bilan bilan) throws IOException {
+        if (ligne == null) {
+            return;
+        }
+
+        // Après une signature, les lignes vides et les commentaires sont gardés jusqu'à la première instruction
+        if (signature.ligne != null) {
+            if (ScanneurLigne.estVideOuCommentaire(ligne)) {
+                // Au-delà de SUIVANTES_MAX lignes, elles sont recopiées : le squelette ira juste avant l'instruction
+                if (signature.suivantes.size() == SUIVANTES_MAX) {
+                    ecrireSuivantes(writer, signature);
+                }
+                signature.suivantes.add(ligne);
+                return;
+            }
+            completer(writer, signature, ScanneurLigne.estDebutDocstring(ligne), bilan);
+        }
+
+        writer.write(ligne);
+        writer.write("\n");
+
+        if (nom != null && ScanneurLigne.estSignatureFonction(ligne)) {
+            signature.ligne = ligne;
+        }
+    }
+
+    /**
+     * Ajoute le squelette de commentaire pydoc de la signature en attente si sa premiere instruction n'est pas deja
+     * une docstring, puis recopie les lignes gardees depuis la signature. Un fichier deja commente n'est donc pas
+     * modifie par une nouvelle correction.
+     */
+    private void completer(Writer writer, Signature signature, boolean docstring, Bilan bilan) throws IOException {
+        if (signature.ligne == null) {
+            return;
+        }
+        if (!docstring) {
+            bilan.messageCommentaires.append("\t Ajout d'un squelette de commentaire pydoc pour la fonction : ").append(signature.ligne.trim()).append("\n");
+            bilan.nbCommentaires++;
+            writer.write("\t\"\"\"\n\t @" + nom + "  @version" + version + "\n\t\"\"\"\n");
+        }
+        ecrireSuivantes(writer, signature);
+        signature.ligne = null;
+    }
+
+    private static void ecrireSuivantes(Writer writer, Signature signature) throws IOException {
+        for (String suivante : signature.suivantes) {
+            writer.write(suivante);
+            writer.write("\n");
+        }
+        signature.suivantes.clear();
+    }
+
+    /**
+     * Remplace le fichier par sa version corrigee. Le fichier temporaire reprend les permissions, le proprietaire,
+     * le groupe et les ACL du fichier, puis le remplace atomiquement. Un fichier a plusieurs liens physiques, ou dont
+     * le proprietaire ou le groupe ne peuvent pas etre repris, est reecrit sur place : il garde ainsi son inode et
+     * ses attributs, au prix de l'atomicite.
+     */
+    private static void remplacer(Path original, Path temporaire) throws IOException {
+        if (!conserverAttributs(original, temporaire)) {
+            try (OutputStream sortie = Files.newOutputStream(original, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+                Files.copy(temporaire, sortie);
+            }
+            return;
+        }
+        Files.move(temporaire, original, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    // Renvoie false si le fichier temporaire ne peut pas prendre la place du fichier sans perdre un attribut
+    private static boolean conserverAttributs(Path original, Path temporaire) throws IOException {
+        PosixFileAttributeView posix = Files.getFileAttributeView(original, PosixFileAttributeView.class);
+        if (posix != null) {
+            try {
+                if ((Integer) Files.getAttribute(original, "unix:nlink") > 1) {
+                    return false;
+                }
+            } catch (UnsupportedOperationException | IllegalArgumentException e) {
+                // Vue "unix" absente : le nombre de liens n'est pas connu
+            }
+            PosixFileAttributes attributs = posix.readAttributes();
+            PosixFileAttributeView copie = Files.getFileAttributeView(temporaire, PosixFileAttributeView.class);
+            PosixFileAttributes attributsCopie = copie.readAttributes();
+            try {
+                if (!attributs.owner().equals(attributsCopie.owner())) {
+                    copie.setOwner(attributs.owner());
+                }
+                if (!attributs.group().equals(attributsCopie.group())) {
+                    copie.setGroup(attributs.group());
+                }
+            } catch (IOException e) {
+                // Changer de propriétaire ou de groupe demande des droits que l'on n'a pas
+                return false;
+            }
+            copie.setPermissions(attributs.permissions());
+        }
+        AclFileAttributeView acl = Files.getFileAttributeView(original, AclFileAttributeView.class);
+        if (acl != null) {
+            Files.getFileAttributeView(temporaire, AclFileAttributeView.class).setAcl(acl.getAcl());
+        }
+        return true;
+    }
+
+    /**
+     * Bilan des corrections appliquees a un fichier.
+     */
+    public static class Bilan {
+        private String messageShebang = "";
+        private final StringBuilder messageCommentaires = new StringBuilder();
+        private boolean shebangAjoute;
+        private int nbCommentaires;
+
+        /**
+         * Constructeur de la classe Bilan : aucune correction n'est encore appliquee.
+         */
+        public Bilan() {
+        }
+
+        /**
+         * @return Le message de la correction du shebang, vide si elle n'etait pas demandee.
+         */
+        public String getMessageShebang() {
+            return messageShebang;
+        }
+
+        /**
+         * @return Un message par squelette de commentaire pydoc ajoute.
+         */
+        public String getMessageCommentaires() {
+            return messageCommentaires.toString();
+        }
+
+        /**
+         * @return Le nombre de squelettes de commentaire pydoc ajoutes.
+         */
+        public int getNbCommentaires() {
+            return nbCommentaires;
+        }
+
+        /**
+         * @return true si le fichier a ete reecrit.
+         */
+        public boolean estModifie() {
+            return shebangAjoute || nbCommentaires > 0;
+        }
+    }
+
+    /**
+     * Signature de fonction dont la premiere instruction n'a pas encore ete lue, et lignes vides ou commentaires
+     * lus depuis (au plus SUIVANTES_MAX).
+     */
+    private static class Signature {
+        private String ligne;
+        private final List<String> suivantes = new ArrayList<>();
+    }
+}
@@ -2,9 +2,15 @@ package outil;
 
 import java.io.File;
 import java.io.IOException;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Path;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.attribute.BasicFileAttributes;
 /**
- * La classe RechercheFichier permet de trouver un dossier specifie par nom dans le repertoire courant.
- * Elle liste tous les dossiers du repertoire courant et recherche le dossier avec le nom specifie.
+ * La classe RechercheFichier permet de trouver un dossier specifie par nom dans l'arborescence du repertoire courant.
+ * Les dossiers du repertoire courant sont examines en premier ; sinon, l'arborescence est parcourue avec
+ * Files.walkFileTree, sans entrer dans les dossiers ignores (FiltreIgnores), et le dossier le moins profond qui
+ * porte ce nom est retenu.
  *
  *
  * @author CHEBALLAH Jawed
@@ -12,6 +18,7 @@ import java.io.IOException;
  */
 public class RechercheFichier {
     private String nomDossier;
+    private final FiltreIgnores filtre;
 
     /**
      * Constructeur de la classe RechercheFichier.
@@ -19,30 +26,81 @@ public class RechercheFichier {
      * @param nomDossier Le nom du dossier a rechercher.
      */
     public RechercheFichier(String nomDossier) {
+        this(nomDossier, FiltreIgnores.parDefaut());
+    }
+
+    /**
+     * Constructeur de la classe RechercheFichier avec des regles d'exclusion specifiques.
+     *
+     * @param nomDossier Le nom du dossier a rechercher.
+     * @param filtre     Les dossiers dans lesquels ne pas chercher.
+     */
+    public RechercheFichier(String nomDossier, FiltreIgnores filtre) {
         this.nomDossier = nomDossier;
+        this.filtre = filtre;
     }
 
     /**
-     * Trouve le dossier specifie par nomDossier dans le repertoire courant.
+     * Trouve le dossier specifie par nomDossier dans l'arborescence du repertoire courant. Un chemin vers un
+     * dossier existant (relatif ou absolu, avec un separateur) est accepte tel quel.
      *
      * @return Le dossier trouve ou null s'il n'est pas trouve.
      */
     public File trouverDossier() {
+        File chemin = new File(nomDossier);
+        if ((nomDossier.contains(File.separator) || nomDossier.contains("/")) && chemin.isDirectory()) {
+            return canonique(chemin);
+        }
+
         // Liste tous les dossiers dans le repertoire courant
         File[] dossiers = new File(".").listFiles(File::isDirectory);
 
-        for (File dossier : dossiers) {
-            try {
+        if (dossiers != null) {
+            for (File dossier : dossiers) {
                 // Verifie si le nom du dossier correspond a nomDossier
-                if (dossier.getName().equals(nomDossier) || dossier.getCanonicalFile().getName().equals(nomDossier)) {
-                    return dossier.getCanonicalFile();
+                if (dossier.getName().equals(nomDossier) || canonique(dossier).getName().equals(nomDossier)) {
+                    return canonique(dossier);
                 }
-            } catch (IOException e) {
-                // Gerer les exceptions appropriees ici
-                e.printStackTrace();
             }
         }
 
-        return null; // Aucun dossier trouve avec le nom spécifie
+        // Sinon cherche dans toute l'arborescence le dossier le moins profond portant ce nom
+        Path racine = canonique(new File(".")).toPath();
+        Path[] trouve = {null};
+        try {
+            filtre.parcourir(racine, new SimpleFileVisitor<Path>() {
+                @Override
+                public FileVisitResult preVisitDirectory(Path dossier, BasicFileAttributes attributs) {
+                    int profondeur = racine.relativize(dossier).getNameCount();
+                    // Inutile de descendre plus bas que le meilleur dossier déjà trouvé
+                    if (trouve[0] != null && profondeur >= racine.relativize(trouve[0]).getNameCount()) {
+                        return FileVisitResult.SKIP_SUBTREE;
+                    }
+                    if (!dossier.equals(racine) && dossier.getFileName().toString().equals(nomDossier)) {
+                        trouve[0] = dossier;
+                        return FileVisitResult.SKIP_SUBTREE;
+                    }
+                    return FileVisitResult.CONTINUE;
+                }
+
+                @Override
+                public FileVisitResult visitFileFailed(Path fichier, IOException e) {
+                    return FileVisitResult.CONTINUE;
+                }
+            });
+        } catch (IOException e) {
+            // Gerer les exceptions appropriees ici
+            e.printStackTrace();
+        }
+
+        return trouve[0] != null ? canonique(trouve[0].toFile()) : null; // Aucun dossier trouve avec le nom spécifie
+    }
+
+    private static File canonique(File fichier) {
+        try {
+            return fichier.getCanonicalFile();
+        } catch (IOException e) {
+            return fichier.getAbsoluteFile();
+        }
     }
 }
@@ -0,0 +1,56 @@
+package outil;
+
+import java.util.List;
+
+/**
+ * L'interface Regle est le point d'extension des verifications ligne par ligne. Une regle declare les motifs qui
+ * l'interessent ; elle n'est appelee que sur les lignes ou l'un d'eux apparait. Les motifs de toutes les regles
+ * actives sont compiles dans un seul automate, parcouru une fois par ligne : ajouter une regle ne rajoute pas de
+ * passe sur le fichier.
+ *
+ * <p>Les regles d'autres modules sont trouvees par ServiceLoader (fournisseurs de outil.Regle). Une meme instance
+ * est utilisee par tous les threads d'analyse : une regle ne doit garder aucun etat entre deux appels, le
+ * resultat du fichier etant le seul endroit ou ecrire.
+ *
+ *
+ * @author CHEBALLAH Jawed
+ * @author FWALA Yvon
+ */
+public interface Regle {
+    /**
+     * @return L'identifiant de la regle, court et unique, utilise par l'option --regles et dans les rapports.
+     */
+    String getIdentifiant();
+
+    /**
+     * @return Les motifs recherches dans chaque ligne ; l'indice d'un motif dans cette liste est transmis a
+     * correspondance.
+     */
+    List<Motif> getMotifs();
+
+    /**
+     * Traite une occurrence de l'un des motifs de la regle.
+     *
+     * @param ligne       La ligne, sans son caractere de fin de ligne.
+     * @param numeroLigne Le numero de la ligne dans le fichier, a partir de 1.
+     * @param motif       L'indice du motif trouve dans getMotifs().
+     * @param debut       La position du debut de l'occurrence dans la ligne.
+     * @param resultat    Le resultat du fichier, dans lequel signaler les constats.
+     */
+    void correspondance(CharSequence ligne, int numeroLigne, int motif, int debut, ResultatFichier resultat);
+
+    /**
+     * @return La version de la regle, a changer lorsque ses constats changent pour que le cache d'analyse soit
+     * invalide.
+     */
+    default int getVersion() {
+        return 1;
+    }
+
+    /**
+     * @return true si la regle est appliquee sans etre demandee par l'option --regles.
+     */
+    default boolean isActiveParDefaut() {
+        return true;
+    }
+}
@@ -0,0 +1,42 @@
+package outil;
+
+import java.util.List;
+
+/**
+ * Regle integree, activee par --regles todo, qui signale les marqueurs TODO, FIXME et XXX laisses dans les
+ * commentaires.
+ *
+ *
+ * @author CHEBALLAH Jawed
+ * @author FWALA Yvon
+ */
+final class RegleMarqueurs implements Regle {
+    private static final List<Motif> MOTIFS = List.of(Motif.mot("TODO"), Motif.mot("FIXME"), Motif.mot("XXX"));
+
+    @Override
+    public String getIdentifiant() {
+        return "todo";
+    }
+
+    @Override
+    public List<Motif> getMotifs() {
+        return MOTIFS;
+    }
+
+    @Override
+    public boolean isActiveParDefaut() {
+        return false;
+    }
+
+    @Override
+    public void correspondance(CharSequence ligne, int numeroLigne, int motif, int debut, ResultatFichier resultat) {
+        // Seul un marqueur placé après un # est dans un commentaire
+        for (int i = 0; i < debut; i++) {
+            if (ligne.charAt(i) == '#') {
+                resultat.signaler(new Constat(getIdentifiant(), numeroLigne, debut + 1,
+                        "Marqueur " + MOTIFS.get(motif).getTexte() + " dans un commentaire."));
+                return;
+            }
+        }
+    }
+}
@@ -0,0 +1,56 @@
+package outil;
+
+import java.util.List;
+
+/**
+ * Regle integree, activee par --regles print, qui signale les appels a la fonction print, souvent oublies apres
+ * une mise au point.
+ *
+ *
+ * @author CHEBALLAH Jawed
+ * @author FWALA Yvon
+ */
+final class ReglePrint implements Regle {
+    private static final List<Motif> MOTIFS = List.of(Motif.mot("print"));
+
+    @Override
+    public String getIdentifiant() {
+        return "print";
+    }
+
+    @Override
+    public List<Motif> getMotifs() {
+        return MOTIFS;
+    }
+
+    @Override
+    public boolean isActiveParDefaut() {
+        return false;
+    }
+
+    @Override
+    public void correspondance(CharSequence ligne, int numeroLigne, int motif, int debut, ResultatFichier resultat) {
+        // Un print dans un commentaire n'est pas un appel
+        for (int i = 0; i < debut; i++) {
+            if (ligne.charAt(i) == '#') {
+                return;
+            }
+        }
+        // Ni une méthode (objet.print) ni une définition (def print)
+        int avant = debut - 1;
+        while (avant >= 0 && ligne.charAt(avant) == ' ') {
+            avant--;
+        }
+        if (avant >= 0 && ligne.charAt(avant) == '.' || avant >= 2 && ligne.charAt(avant) == 'f'
+                && ligne.charAt(avant - 1) == 'e' && ligne.charAt(avant - 2) == 'd') {
+            return;
+        }
+        int apres = debut + 5;
+        while (apres < ligne.length() && ligne.charAt(apres) == ' ') {
+            apres++;
+        }
+        if (apres < ligne.length() && ligne.charAt(apres) == '(') {
+            resultat.signaler(new Constat(getIdentifiant(), numeroLigne, debut + 1, "Appel à print()."));
+        }
+    }
+}
@@ -0,0 +1,41 @@
+package outil;
+
+import java.util.List;
+
+/**
+ * Regle integree qui reconnait une ligne de shebang ou la declaration d'encodage utf-8, espaces de debut et de fin
+ * ignores. Elle donne le meme resultat que ScanneurLigne.estShebang et remplit ResultatFichier.isShebangPresent.
+ *
+ *
+ * @author CHEBALLAH Jawed
+ * @author FWALA Yvon
+ */
+final class RegleShebang implements Regle {
+    private static final String ENCODAGE_UTF8 = "# -*- coding: utf-8 -*-";
+    private static final List<Motif> MOTIFS = List.of(Motif.prefixe("#!"), Motif.prefixe(ENCODAGE_UTF8));
+
+    @Override
+    public String getIdentifiant() {
+        return "shebang";
+    }
+
+    @Override
+    public List<Motif> getMotifs() {
+        return MOTIFS;
+    }
+
+    @Override
+    public void correspondance(CharSequence ligne, int numeroLigne, int motif, int debut, ResultatFichier resultat) {
+        if (motif == 0) {
+            resultat.shebangPresent = true;
+            return;
+        }
+        // La déclaration d'encodage doit être seule sur sa ligne
+        for (int i = debut + ENCODAGE_UTF8.length(); i < ligne.length(); i++) {
+            if (ligne.charAt(i) > ' ') {
+                return;
+            }
+        }
+        resultat.shebangPresent = true;
+    }
+}
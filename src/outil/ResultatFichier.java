@@ -0,0 +1,290 @@
+package outil;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * La classe ResultatFichier regroupe le resultat de toutes les verifications effectuees sur un fichier Python
+ * lors d'une seule lecture : shebang, commentaires pydoc, annotations de type, nombre de fonctions et constats des
+ * regles ligne par ligne.
+ * Elle est partagee par la ligne de commande, l'interface graphique et les statistiques.
+ *
+ *
+ * @author CHEBALLAH Jawed
+ * @author FWALA Yvon
+ */
+public class ResultatFichier {
+    private final String chemin;
+    private final String nom;
+    boolean shebangPresent;
+    int nbFonctions;
+    int nbFonctionsPydoc;
+    int nbFonctionsAnnotees;
+    final List<String> fonctionsAnnotees = new ArrayList<>();
+    final List<ResultatFonction> fonctions = new ArrayList<>();
+    final List<Constat> constats = new ArrayList<>();
+    String erreur;
+    long empreinte = Empreinte.DEBUT;
+
+    /**
+     * Constructeur de la classe ResultatFichier.
+     *
+     * @param chemin Le chemin du fichier analyse.
+     * @param nom    Le nom du fichier analyse.
+     */
+    public ResultatFichier(String chemin, String nom) {
+        this.chemin = chemin;
+        this.nom = nom;
+    }
+
+    /**
+     * @return Le chemin du fichier analyse.
+     */
+    public String getChemin() {
+        return chemin;
+    }
+
+    /**
+     * @return Le nom du fichier analyse.
+     */
+    public String getNom() {
+        return nom;
+    }
+
+    /**
+     * @return true si une ligne de shebang ou d'encodage est presente, sinon false.
+     */
+    public boolean isShebangPresent() {
+        return shebangPresent;
+    }
+
+    /**
+     * @return Le nombre de fonctions du fichier.
+     */
+    public int getNbFonctions() {
+        return nbFonctions;
+    }
+
+    /**
+     * @return Le nombre de fonctions avec des commentaires pydoc.
+     */
+    public int getNbFonctionsPydoc() {
+        return nbFonctionsPydoc;
+    }
+
+    /**
+     * @return Le nombre de fonctions avec des annotations de type.
+     */
+    public int getNbFonctionsAnnotees() {
+        return nbFonctionsAnnotees;
+    }
+
+    /**
+     * @return Les noms des fonctions avec des annotations de type, dans l'ordre du fichier.
+     */
+    public List<String> getFonctionsAnnotees() {
+        return fonctionsAnnotees;
+    }
+
+    /**
+     * @return Le detail de chaque fonction reconnue par le compteur de fonctions, dans l'ordre du fichier.
+     */
+    public List<ResultatFonction> getFonctions() {
+        return fonctions;
+    }
+
+    /**
+     * @return Les constats signales par les regles, dans l'ordre des lignes.
+     */
+    public List<Constat> getConstats() {
+        return constats;
+    }
+
+    /**
+     * Ajoute un constat signale par une regle.
+     *
+     * @param constat Le constat.
+     */
+    public void signaler(Constat constat) {
+        constats.add(constat);
+    }
+
+    /**
+     * @return Le message d'erreur de lecture, ou null si le fichier a ete lu correctement.
+     */
+    public String getErreur() {
+        return erreur;
+    }
+
+    /**
+     * @return L'empreinte du contenu lu, utilisee par le cache d'analyse.
+     */
+    public long getEmpreinte() {
+        return empreinte;
+    }
+
+    /**
+     * @return true si la lecture du fichier a echoue.
+     */
+    public boolean enErreur() {
+        return erreur != null;
+    }
+
+    /**
+     * Message indiquant si la premiere ligne de shebang est presente ou manquante.
+     *
+     * @return Le message du controle du shebang.
+     */
+    public String rapportShebang() {
+        if (enErreur()) {
+            return messageErreur();
+        }
+        return shebangPresent ? "La première ligne de shebang est présente." : "\t La première ligne de shebang est manquante.";
+    }
+
+    /**
+     * Message indiquant le nombre de fonctions avec des commentaires pydoc.
+     *
+     * @return Le message du controle pydoc.
+     */
+    public String rapportPydoc() {
+        if (enErreur()) {
+            return messageErreur();
+        }
+        return "\t Nombre de fonctions avec commentaires pydoc :" + nbFonctionsPydoc + "\n";
+    }
+
+    /**
+     * Message listant les fonctions avec des annotations de type et leur nombre.
+     *
+     * @return Le message du controle des annotations de type.
+     */
+    public String rapportType() {
+        StringBuilder result = new StringBuilder();
+        try {
+            ecrireType(result);
+        } catch (IOException e) {
+            // Un StringBuilder ne leve jamais d'IOException
+            throw new UncheckedIOException(e);
+        }
+        return result.toString();
+    }
+
+    /**
+     * Message indiquant le nombre de fonctions du fichier.
+     *
+     * @return Le message du compteur de fonctions.
+     */
+    public String rapportFonctions() {
+        if (enErreur()) {
+            return messageErreur();
+        }
+        return "\t Nombre de fonctions : " + nbFonctions + "\n";
+    }
+
+    /**
+     * Rapport complet du fichier, au format de l'option -d.
+     *
+     * @return Le rapport d'analyse du fichier.
+     */
+    public String rapport() {
+        StringBuilder result = new StringBuilder();
+        try {
+            ecrireRapport(result);
+        } catch (IOException e) {
+            // Un StringBuilder ne leve jamais d'IOException
+            throw new UncheckedIOException(e);
+        }
+        return result.toString();
+    }
+
+    /**
+     * Rapport du fichier au format de Analyseur.analyserRepertoire.
+     *
+     * @return Le rapport d'analyse du fichier, suivi d'une ligne vide.
+     */
+    public String rapportRepertoire() {
+        return "Analyse du fichier " + nom + " :\n" + rapportShebang() + rapportPydoc() + rapportType() + rapportFonctions() + "\n";
+    }
+
+    /**
+     * Ecrit le rapport complet du fichier, au format de l'option -d, sans chaine intermediaire.
+     *
+     * @param sortie La destination du rapport.
+     * @throws IOException Si une exception d'entree/sortie se produit.
+     */
+    public void ecrireRapport(Appendable sortie) throws IOException {
+        sortie.append("Nom du fichier : ").append(nom).append("\n");
+        if (enErreur()) {
+            sortie.append(messageErreur());
+        } else {
+            sortie.append(rapportShebang());
+            sortie.append("\t Nombre de fonctions avec commentaires pydoc :").append(String.valueOf(nbFonctionsPydoc)).append("\n");
+            ecrireType(sortie);
+            sortie.append("\t Nombre de fonctions : ").append(String.valueOf(nbFonctions)).append("\n");
+            ecrireConstats(sortie);
+        }
+    }
+
+    /**
+     * Message listant les constats des regles, un par ligne.
+     *
+     * @return Le message des regles, vide si aucun constat n'a ete signale.
+     */
+    public String rapportConstats() {
+        StringBuilder result = new StringBuilder();
+        try {
+            ecrireConstats(result);
+        } catch (IOException e) {
+            // Un StringBuilder ne leve jamais d'IOException
+            throw new UncheckedIOException(e);
+        }
+        return result.toString();
+    }
+
+    private void ecrireConstats(Appendable sortie) throws IOException {
+        for (Constat constat : constats) {
+            sortie.append("\t Ligne ").append(String.valueOf(constat.getLigne())).append(", colonne ")
+                    .append(String.valueOf(constat.getColonne())).append(" [").append(constat.getRegle()).append("] : ")
+                    .append(constat.getMessage()).append("\n");
+        }
+    }
+
+    private void ecrireType(Appendable sortie) throws IOException {
+        if (enErreur()) {
+            sortie.append(messageErreur());
+            return;
+        }
+        for (String fonction : fonctionsAnnotees) {
+            sortie.append("\t La fonction '").append(fonction).append("' contient des annotations de type.\n");
+        }
+        sortie.append("\t Nombre de fonctions avec annotations de type :").append(String.valueOf(nbFonctionsAnnotees));
+    }
+
+    /**
+     * Copie le resultat d'un fichier pour un autre fichier de contenu identique.
+     *
+     * @param autreChemin Le chemin de l'autre fichier.
+     * @param autreNom    Le nom de l'autre fichier.
+     * @return Le meme resultat, sous le chemin et le nom de l'autre fichier.
+     */
+    ResultatFichier copier(String autreChemin, String autreNom) {
+        ResultatFichier copie = new ResultatFichier(autreChemin, autreNom);
+        copie.shebangPresent = shebangPresent;
+        copie.nbFonctions = nbFonctions;
+        copie.nbFonctionsPydoc = nbFonctionsPydoc;
+        copie.nbFonctionsAnnotees = nbFonctionsAnnotees;
+        copie.fonctionsAnnotees.addAll(fonctionsAnnotees);
+        copie.fonctions.addAll(fonctions);
+        copie.constats.addAll(constats);
+        copie.erreur = erreur;
+        copie.empreinte = empreinte;
+        return copie;
+    }
+
+    private String messageErreur() {
+        return "\t Erreur lors de la lecture du fichier " + nom + ": " + erreur + "\n";
+    }
+}
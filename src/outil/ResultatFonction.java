@@ -0,0 +1,116 @@
+package outil;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * La classe ResultatFonction decrit une fonction trouvee dans un fichier Python : son nom, son etendue (de la
+ * ligne du mot-cle def a sa derniere ligne de code), ses parametres et le resultat des verifications qui la
+ * concernent (docstring, annotations de type).
+ *
+ *
+ * @author CHEBALLAH Jawed
+ * @author FWALA Yvon
+ */
+public class ResultatFonction {
+    private final String nom;
+    private final int ligne;
+    int ligneFin;
+    final List<Parametre> parametres = new ArrayList<>();
+    String annotationRetour;
+    boolean pydoc;
+    boolean annotee;
+
+    /**
+     * Constructeur de la classe ResultatFonction.
+     *
+     * @param nom   Le nom de la fonction.
+     * @param ligne Le numero de la ligne de la signature, a partir de 1.
+     */
+    public ResultatFonction(String nom, int ligne) {
+        this.nom = nom;
+        this.ligne = ligne;
+    }
+
+    /**
+     * @return Le nom de la fonction.
+     */
+    public String getNom() {
+        return nom;
+    }
+
+    /**
+     * @return Le numero de la ligne de la signature, a partir de 1.
+     */
+    public int getLigne() {
+        return ligne;
+    }
+
+    /**
+     * @return Le numero de la derniere ligne de code de la fonction, a partir de 1.
+     */
+    public int getLigneFin() {
+        return ligneFin;
+    }
+
+    /**
+     * @return Les parametres de la fonction, dans l'ordre de la signature.
+     */
+    public List<Parametre> getParametres() {
+        return parametres;
+    }
+
+    /**
+     * @return L'annotation du type de retour, ou null si elle est absente.
+     */
+    public String getAnnotationRetour() {
+        return annotationRetour;
+    }
+
+    /**
+     * @return true si la fonction a un commentaire pydoc.
+     */
+    public boolean hasPydoc() {
+        return pydoc;
+    }
+
+    /**
+     * @return true si un parametre ou le type de retour de la fonction est annote.
+     */
+    public boolean isAnnotee() {
+        return annotee;
+    }
+
+    /**
+     * Parametre d'une fonction et son annotation de type.
+     */
+    public static class Parametre {
+        private final String nom;
+        private final String annotation;
+
+        /**
+         * Constructeur de la classe Parametre.
+         *
+         * @param nom        Le nom du parametre, avec ses eventuelles etoiles (*args, **kwargs).
+         * @param annotation L'annotation du parametre, ou null s'il n'est pas annote.
+         */
+        public Parametre(String nom, String annotation) {
+            this.nom = nom;
+            this.annotation = annotation;
+        }
+
+        /**
+         * @return Le nom du parametre, avec ses eventuelles etoiles.
+         */
+        public String getNom() {
+            return nom;
+        }
+
+        /**
+         * @return L'annotation du parametre, ou null s'il n'est pas annote.
+         */
+        public String getAnnotation() {
+            return annotation;
+        }
+    }
+}
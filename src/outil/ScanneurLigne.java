@@ -0,0 +1,166 @@
+package outil;
+
+/**
+ * La classe ScanneurLigne classe une ligne de fichier Python (signature de fonction, shebang ou declaration
+ * d'encodage) en parcourant directement ses caracteres, sans expression reguliere, sans
+ * String.trim() et sans creer de sous-chaine. Chaque methode donne le meme resultat que l'expression reguliere
+ * indiquee dans sa documentation, a une difference pres : \w y accepte aussi les lettres et chiffres non ASCII
+ * des identifiants Python 3, alors que \w de java.util.regex se limite a l'ASCII. Les fonctions, docstrings et
+ * annotations analysees sur plusieurs lignes sont reconnues par LexeurPython.
+ *
+ *
+ * @author CHEBALLAH Jawed
+ * @author FWALA Yvon
+ */
+public final class ScanneurLigne {
+    private static final String ENCODAGE_UTF8 = "# -*- coding: utf-8 -*-";
+
+    private ScanneurLigne() {
+    }
+
+    /**
+     * Verifie si la ligne est un shebang ou la declaration d'encodage utf-8, espaces de debut et de fin ignores.
+     * Equivalent a {@code ligne.trim().startsWith("#!") || ligne.trim().equals("# -*- coding: utf-8 -*-")}.
+     *
+     * @param ligne La ligne a classer.
+     * @return true si la ligne est un shebang ou la declaration d'encodage.
+     */
+    public static boolean estShebang(CharSequence ligne) {
+        int debut = 0;
+        int fin = ligne.length();
+        while (debut < fin && ligne.charAt(debut) <= ' ') {
+            debut++;
+        }
+        while (fin > debut && ligne.charAt(fin - 1) <= ' ') {
+            fin--;
+        }
+
+        if (fin - debut >= 2 && ligne.charAt(debut) == '#' && ligne.charAt(debut + 1) == '!') {
+            return true;
+        }
+        return fin - debut == ENCODAGE_UTF8.length() && correspond(ligne, debut, ENCODAGE_UTF8);
+    }
+
+    /**
+     * Verifie si la ligne est une signature de fonction sur une seule ligne.
+     * Equivalent a {@code \s*def\s+\w+\([^)]*\)(\s*->\s*\w+)?\s*:}.
+     *
+     * @param ligne La ligne a classer.
+     * @return true si la ligne est une signature de fonction.
+     */
+    public static boolean estSignatureFonction(CharSequence ligne) {
+        int n = ligne.length();
+        int i = sauterEspaces(ligne, 0);
+
+        if (!correspond(ligne, i, "def")) {
+            return false;
+        }
+        i += 3;
+        int nom = sauterEspaces(ligne, i);
+        if (nom == i) {
+            return false;
+        }
+        i = finMot(ligne, nom);
+        if (i == nom || i >= n || ligne.charAt(i) != '(') {
+            return false;
+        }
+
+        // Les parametres vont jusqu'a la premiere parenthese fermante
+        i++;
+        while (i < n && ligne.charAt(i) != ')') {
+            i++;
+        }
+        if (i >= n) {
+            return false;
+        }
+        i = sauterEspaces(ligne, i + 1);
+
+        // Type de retour facultatif
+        if (correspond(ligne, i, "->")) {
+            int type = sauterEspaces(ligne, i + 2);
+            i = finMot(ligne, type);
+            if (i == type) {
+                return false;
+            }
+            i = sauterEspaces(ligne, i);
+        }
+        return i == n - 1 && ligne.charAt(i) == ':';
+    }
+
+    /**
+     * Verifie si la ligne ne contient que des espaces ou un commentaire.
+     * Equivalent a {@code \s*(#.*)?}.
+     *
+     * @param ligne La ligne a classer.
+     * @return true si la ligne est vide, blanche ou un commentaire.
+     */
+    public static boolean estVideOuCommentaire(CharSequence ligne) {
+        int i = sauterEspaces(ligne, 0);
+        return i == ligne.length() || ligne.charAt(i) == '#';
+    }
+
+    /**
+     * Verifie si la ligne commence par une chaine litterale, c'est-a-dire une docstring lorsqu'elle est la premiere
+     * instruction d'une fonction. Equivalent a {@code \s*[rRuU]?["'].*}.
+     *
+     * @param ligne La ligne a classer.
+     * @return true si la ligne commence par une chaine, prefixee ou non par r ou u.
+     */
+    public static boolean estDebutDocstring(CharSequence ligne) {
+        int n = ligne.length();
+        int i = sauterEspaces(ligne, 0);
+        if (i < n && "rRuU".indexOf(ligne.charAt(i)) >= 0) {
+            i++;
+        }
+        return i < n && (ligne.charAt(i) == '"' || ligne.charAt(i) == '\'');
+    }
+
+    /**
+     * Donne la fin d'un mot (lettres, chiffres et '_', y compris hors ASCII comme dans les identifiants Python 3)
+     * commencant a la position indiquee.
+     *
+     * @param ligne La ligne a parcourir.
+     * @param debut La position du debut du mot.
+     * @return La position qui suit le dernier caractere du mot.
+     */
+    public static int finMot(CharSequence ligne, int debut) {
+        int i = debut;
+        while (i < ligne.length() && estMot(ligne.charAt(i))) {
+            i++;
+        }
+        return i;
+    }
+
+    private static boolean correspond(CharSequence ligne, int debut, String attendu) {
+        if (debut < 0 || debut + attendu.length() > ligne.length()) {
+            return false;
+        }
+        for (int i = 0; i < attendu.length(); i++) {
+            if (ligne.charAt(debut + i) != attendu.charAt(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static int sauterEspaces(CharSequence ligne, int debut) {
+        int i = debut;
+        while (i < ligne.length() && estEspace(ligne.charAt(i))) {
+            i++;
+        }
+        return i;
+    }
+
+    // Caractères de \s dans java.util.regex
+    private static boolean estEspace(char c) {
+        return c == ' ' || c == '\t' || c == '\n' || c == '\u000B' || c == '\f' || c == '\r';
+    }
+
+    // Caractères de \w dans java.util.regex pour l'ASCII ; au-delà, caractères d'identifiant Unicode (PEP 3131)
+    private static boolean estMot(char c) {
+        if (c < 128) {
+            return (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z') || (c >= '0' && c <= '9') || c == '_';
+        }
+        return Character.isUnicodeIdentifierPart(c) && !Character.isIdentifierIgnorable(c);
+    }
+}
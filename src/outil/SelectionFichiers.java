@@ -0,0 +1,26 @@
+package outil;
+
+import java.io.IOException;
+
+/**
+ * L'interface SelectionFichiers designe un ensemble de fichiers Python a analyser a la place de toute
+ * l'arborescence d'un dossier : les fichiers modifies d'un depot git, les fichiers d'une archive, etc.
+ *
+ *
+ * @author CHEBALLAH Jawed
+ * @author FWALA Yvon
+ */
+public interface SelectionFichiers {
+
+    /**
+     * Analyse en parallele les fichiers de la selection et transmet chaque resultat a la sortie, dans l'ordre
+     * de la selection.
+     *
+     * @param parcours Le parcours qui execute les analyses.
+     * @param moteur   Le moteur utilise pour analyser les contenus qui ne sont pas des fichiers du disque.
+     * @param sortie   La sortie qui recoit les resultats au fur et a mesure.
+     * @return Le nombre de fichiers analyses.
+     * @throws IOException Si la lecture de la selection ou l'ecriture dans la sortie echoue.
+     */
+    int analyser(ParcoursArborescence parcours, MoteurAnalyse moteur, SortieRapport sortie) throws IOException;
+}
@@ -0,0 +1,248 @@
+package outil;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.Writer;
+import java.net.StandardProtocolFamily;
+import java.net.UnixDomainSocketAddress;
+import java.nio.channels.AsynchronousCloseException;
+import java.nio.channels.Channels;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.LinkOption;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.attribute.PosixFileAttributes;
+import java.nio.file.attribute.PosixFilePermission;
+import java.nio.file.attribute.PosixFilePermissions;
+import java.nio.file.attribute.UserPrincipal;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * La classe ServeurAnalyse garde un moteur d'analyse en memoire derriere une socket locale (Unix domain socket),
+ * pour que les appels repetes (crochet pre-commit par exemple) ne paient ni le demarrage de la JVM ni le
+ * chargement des classes, et profitent du code deja compile par le JIT.
+ *
+ * <p>Protocole, en UTF-8, une commande par connexion :
+ * <pre>
+ * ANALYSER texte|ndjson [repertoire]   puis un chemin par ligne, jusqu'a une ligne vide ou la fin de l'envoi
+ * ARRETER                              arrete le serveur
+ * </pre>
+ * Les chemins relatifs sont resolus dans le repertoire indique (celui du client). Le rapport de chaque fichier,
+ * ou de chaque fichier d'un dossier, est renvoye des qu'il est pret, au format de l'option -d ou au format
+ * NDJSON. Le client peut donc etre un simple {@code nc -U}.
+ *
+ *
+ * @author CHEBALLAH Jawed
+ * @author FWALA Yvon
+ */
+public class ServeurAnalyse {
+    /** Nombre d'analyses d'un fichier d'exemple effectuees au demarrage pour faire compiler le code par le JIT. */
+    private static final int ITERATIONS_PRECHAUFFAGE = 5_000;
+
+    private final Path socket;
+    private final int parallelisme;
+    private final MoteurAnalyse moteur = new MoteurAnalyse();
+    private volatile ServerSocketChannel serveur;
+
+    /**
+     * Constructeur de la classe ServeurAnalyse.
+     *
+     * @param socket       Le chemin de la socket locale.
+     * @param parallelisme Le nombre de connexions traitees en meme temps.
+     */
+    public ServeurAnalyse(Path socket, int parallelisme) {
+        this.socket = socket;
+        this.parallelisme = parallelisme;
+    }
+
+    /**
+     * Donne le chemin de socket utilise par defaut, dans un dossier que seul l'utilisateur peut ouvrir :
+     * $XDG_RUNTIME_DIR s'il est defini, sinon un dossier japybeautify-UTILISATEUR en 0700 dans le dossier temporaire.
+     * Le client et le serveur partagent ce chemin.
+     *
+     * @return Le chemin de la socket par defaut.
+     */
+    public static Path socketParDefaut() {
+        String execution = System.getenv("XDG_RUNTIME_DIR");
+        Path repertoire = execution != null && !execution.isEmpty() && Paths.get(execution).isAbsolute()
+                ? Paths.get(execution)
+                : Paths.get(System.getProperty("java.io.tmpdir"), "japybeautify-" + System.getProperty("user.name"));
+        return repertoire.resolve("japybeautify.sock");
+    }
+
+    /**
+     * Demarre le serveur et traite les connexions jusqu'a la commande ARRETER.
+     *
+     * @throws IOException Si la socket ne peut pas etre creee, par exemple si un serveur l'utilise deja.
+     */
+    public void servir() throws IOException {
+        if (socket.equals(socketParDefaut())) {
+            preparerRepertoirePrive(socket.getParent());
+        }
+        supprimerSocketAbandonnee();
+        prechauffer();
+
+        ExecutorService executeur = Executors.newFixedThreadPool(parallelisme);
+        try (ServerSocketChannel canal = ServerSocketChannel.open(StandardProtocolFamily.UNIX)) {
+            serveur = canal;
+            canal.bind(UnixDomainSocketAddress.of(socket));
+            try {
+                Files.setPosixFilePermissions(socket, PosixFilePermissions.fromString("rw-------"));
+            } catch (UnsupportedOperationException e) {
+                // Système de fichiers sans permissions POSIX
+            }
+            System.out.println("\t Serveur d'analyse prêt sur " + socket);
+
+            while (true) {
+                SocketChannel client = canal.accept();
+                executeur.execute(() -> traiter(client));
+            }
+        } catch (AsynchronousCloseException e) {
+            // Commande ARRETER : la socket a été fermée par un autre thread
+        } finally {
+            executeur.shutdown();
+            Files.deleteIfExists(socket);
+        }
+    }
+
+    private void traiter(SocketChannel client) {
+        try (client;
+             BufferedReader entree = new BufferedReader(new InputStreamReader(Channels.newInputStream(client), StandardCharsets.UTF_8));
+             Writer sortie = new BufferedWriter(Channels.newWriter(client, StandardCharsets.UTF_8))) {
+            String commande = entree.readLine();
+            if (commande == null) {
+                return;
+            }
+            String[] mots = commande.trim().split("\\s+", 3);
+
+            if (mots[0].equals("ARRETER")) {
+                sortie.write("\t Arrêt du serveur d'analyse.\n");
+                sortie.flush();
+                serveur.close();
+            } else if (mots[0].equals("ANALYSER") && mots.length >= 2 && (mots[1].equals("texte") || mots[1].equals("ndjson"))) {
+                File repertoire = mots.length == 3 ? new File(mots[2]) : null;
+                analyser(entree, mots[1].equals("ndjson") ? new SortieNdjson(sortie) : new SortieTexte(sortie), repertoire);
+            } else {
+                sortie.write("\t Erreur : commande inconnue '" + commande + "' (ANALYSER texte|ndjson [repertoire] ou ARRETER).\n");
+            }
+        } catch (IOException e) {
+            // Client déconnecté : rien à lui renvoyer
+        }
+    }
+
+    private void analyser(BufferedReader entree, SortieRapport sortie, File repertoire) throws IOException {
+        String chemin;
+        while ((chemin = entree.readLine()) != null && !chemin.isEmpty()) {
+            File fichier = new File(chemin);
+            if (!fichier.isAbsolute() && repertoire != null) {
+                fichier = new File(repertoire, chemin);
+            }
+
+            if (fichier.isDirectory()) {
+                new ParcoursArborescence(Runtime.getRuntime().availableProcessors(), moteur).parcourir(fichier, sortie);
+            } else {
+                sortie.fichier(moteur.analyser(fichier));
+            }
+            sortie.flush();
+        }
+    }
+
+    /**
+     * Cree au besoin le dossier de la socket par defaut en 0700, puis verifie qu'il s'agit bien d'un dossier (et non
+     * d'un lien) appartenant a l'utilisateur et ferme aux autres. Dans le dossier temporaire partage, un autre
+     * utilisateur aurait pu creer ce nom a l'avance pour intercepter les requetes.
+     *
+     * @param repertoire Le dossier de la socket.
+     * @throws IOException Si le dossier ne peut pas etre cree ou n'est pas prive.
+     */
+    private static void preparerRepertoirePrive(Path repertoire) throws IOException {
+        try {
+            if (!Files.exists(repertoire, LinkOption.NOFOLLOW_LINKS)) {
+                try {
+                    Files.createDirectory(repertoire, PosixFilePermissions.asFileAttribute(PosixFilePermissions.fromString("rwx------")));
+                } catch (FileAlreadyExistsException e) {
+                    // Créé entre-temps : la vérification ci-dessous décide
+                }
+            }
+            PosixFileAttributes attributs = Files.readAttributes(repertoire, PosixFileAttributes.class, LinkOption.NOFOLLOW_LINKS);
+            UserPrincipal utilisateur = FileSystems.getDefault().getUserPrincipalLookupService()
+                    .lookupPrincipalByName(System.getProperty("user.name"));
+            boolean ouvert = attributs.permissions().stream().anyMatch(permission -> permission != PosixFilePermission.OWNER_READ
+                    && permission != PosixFilePermission.OWNER_WRITE && permission != PosixFilePermission.OWNER_EXECUTE);
+            if (!attributs.isDirectory() || !attributs.owner().equals(utilisateur) || ouvert) {
+                throw new IOException("Le dossier " + repertoire + " doit être un dossier de l'utilisateur en 0700 ("
+                        + attributs.owner().getName() + ", " + PosixFilePermissions.toString(attributs.permissions())
+                        + ") : supprimez-le ou indiquez une autre socket avec -s.");
+            }
+        } catch (UnsupportedOperationException e) {
+            // Système de fichiers sans permissions POSIX
+            Files.createDirectories(repertoire);
+        }
+    }
+
+    /**
+     * Supprime le fichier d'une socket dont le serveur ne repond plus. Une socket encore active est laissee en place :
+     * la creation du serveur echouera alors.
+     */
+    private void supprimerSocketAbandonnee() throws IOException {
+        if (!Files.exists(socket)) {
+            return;
+        }
+        // Une connexion acceptée suffit à savoir qu'un serveur répond : elle est refermée aussitôt
+        boolean actif;
+        try {
+            SocketChannel essai = SocketChannel.open(UnixDomainSocketAddress.of(socket));
+            essai.close();
+            actif = true;
+        } catch (IOException e) {
+            actif = false;
+        }
+        if (actif) {
+            throw new IOException("Un serveur d'analyse utilise déjà " + socket);
+        }
+        Files.deleteIfExists(socket);
+    }
+
+    /**
+     * Analyse plusieurs fois un fichier d'exemple en memoire, pour que les premieres requetes soient deja rapides.
+     */
+    private static void prechauffer() {
+        String[] exemple = {
+            "#!/usr/bin/env python",
+            "# -*- coding: utf-8 -*-",
+            "import os",
+            "",
+            "class Exemple:",
+            "    def methode(self, a: int, b: str = \"x\") -> int:",
+            "        \"\"\"",
+            "        Documentation.",
+            "        \"\"\"",
+            "        valeur = (a +",
+            "                  len(b))  # commentaire",
+            "        return valeur",
+            "",
+            "async def attendre(delai,",
+            "                   rappel=lambda r: r):",
+            "    def interne(): return '''chaine'''",
+            "    return interne()",
+        };
+        for (int i = 0; i < ITERATIONS_PRECHAUFFAGE; i++) {
+            ResultatFichier resultat = new ResultatFichier("exemple.py", "exemple.py");
+            PasseAnalyse passe = new PasseAnalyse(resultat);
+            for (String ligne : exemple) {
+                resultat.empreinte = Empreinte.ajouter(resultat.empreinte, ligne);
+                passe.analyserLigne(ligne);
+            }
+            passe.terminer();
+        }
+    }
+}
@@ -0,0 +1,255 @@
+package outil;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.Writer;
+
+/**
+ * La classe SortieNdjson ecrit le rapport d'un parcours au format NDJSON : un objet JSON par ligne et par fichier,
+ * avec le detail de chaque fonction. Les objets sont ecrits directement dans le flux, sans chaine intermediaire,
+ * pour etre consommes par d'autres outils sans analyser le rapport texte.
+ *
+ * <p>Exemple de ligne :
+ * {@code {"type":"fichier","chemin":"/p/a.py","nom":"a.py","shebang":true,"nbFonctions":1,"nbFonctionsPydoc":1,
+ * "nbFonctionsAnnotees":1,"fonctions":[{"nom":"f","ligne":3,"ligneFin":6,"pydoc":true,"annotee":true,
+ * "parametres":[{"nom":"x","annotation":"int"}],"retour":null}],"constats":[{"regle":"todo","ligne":4,"colonne":7,
+ * "message":"Marqueur TODO dans un commentaire."}]}}
+ *
+ *
+ * @author CHEBALLAH Jawed
+ * @author FWALA Yvon
+ */
+public class SortieNdjson implements SortieRapport {
+    private static final char[] HEXADECIMAL = "0123456789abcdef".toCharArray();
+
+    private final Writer sortie;
+
+    /**
+     * Constructeur de la classe SortieNdjson.
+     *
+     * @param sortie Le flux dans lequel ecrire les objets, de preference tamponne.
+     */
+    public SortieNdjson(Writer sortie) {
+        this.sortie = sortie;
+    }
+
+    @Override
+    public void fichier(ResultatFichier resultat) throws IOException {
+        sortie.write("{\"type\":\"fichier\",\"chemin\":");
+        ecrireTexte(resultat.getChemin());
+        sortie.write(",\"nom\":");
+        ecrireTexte(resultat.getNom());
+
+        if (resultat.enErreur()) {
+            sortie.write(",\"erreur\":");
+            ecrireTexte(resultat.getErreur());
+            sortie.write("}\n");
+            return;
+        }
+
+        sortie.write(",\"shebang\":");
+        sortie.write(resultat.isShebangPresent() ? "true" : "false");
+        sortie.write(",\"nbFonctions\":");
+        sortie.write(Integer.toString(resultat.getNbFonctions()));
+        sortie.write(",\"nbFonctionsPydoc\":");
+        sortie.write(Integer.toString(resultat.getNbFonctionsPydoc()));
+        sortie.write(",\"nbFonctionsAnnotees\":");
+        sortie.write(Integer.toString(resultat.getNbFonctionsAnnotees()));
+        sortie.write(",\"fonctions\":[");
+        boolean premiere = true;
+        for (ResultatFonction fonction : resultat.getFonctions()) {
+            if (!premiere) {
+                sortie.write(',');
+            }
+            premiere = false;
+            sortie.write("{\"nom\":");
+            ecrireTexte(fonction.getNom());
+            sortie.write(",\"ligne\":");
+            sortie.write(Integer.toString(fonction.getLigne()));
+            sortie.write(",\"ligneFin\":");
+            sortie.write(Integer.toString(fonction.getLigneFin()));
+            sortie.write(",\"pydoc\":");
+            sortie.write(fonction.hasPydoc() ? "true" : "false");
+            sortie.write(",\"annotee\":");
+            sortie.write(fonction.isAnnotee() ? "true" : "false");
+            sortie.write(",\"parametres\":[");
+            for (int p = 0; p < fonction.getParametres().size(); p++) {
+                ResultatFonction.Parametre parametre = fonction.getParametres().get(p);
+                sortie.write(p == 0 ? "{\"nom\":" : ",{\"nom\":");
+                ecrireTexte(parametre.getNom());
+                sortie.write(",\"annotation\":");
+                ecrireTexteFacultatif(parametre.getAnnotation());
+                sortie.write('}');
+            }
+            sortie.write("],\"retour\":");
+            ecrireTexteFacultatif(fonction.getAnnotationRetour());
+            sortie.write('}');
+        }
+        sortie.write("],\"constats\":[");
+        premiere = true;
+        for (Constat constat : resultat.getConstats()) {
+            sortie.write(premiere ? "{\"regle\":" : ",{\"regle\":");
+            premiere = false;
+            ecrireTexte(constat.getRegle());
+            sortie.write(",\"ligne\":");
+            sortie.write(Integer.toString(constat.getLigne()));
+            sortie.write(",\"colonne\":");
+            sortie.write(Integer.toString(constat.getColonne()));
+            sortie.write(",\"message\":");
+            ecrireTexte(constat.getMessage());
+            sortie.write('}');
+        }
+        sortie.write("]}\n");
+    }
+
+    @Override
+    public void dossierSansPython(File dossier) throws IOException {
+        sortie.write("{\"type\":\"dossierSansPython\",\"chemin\":");
+        ecrireTexte(dossier.getAbsolutePath());
+        sortie.write("}\n");
+    }
+
+    /**
+     * Ecrit les statistiques cumulees d'un parcours sous la forme d'un dernier objet.
+     *
+     * @param cumul Les statistiques du parcours.
+     * @throws IOException Si une exception d'entree/sortie se produit.
+     */
+    public void statistiques(CumulStatistique cumul) throws IOException {
+        sortie.write("{\"type\":\"statistiques\",\"nbFichiers\":");
+        sortie.write(Long.toString(cumul.getNbTotalFichiers()));
+        sortie.write(",\"nbShebang\":");
+        sortie.write(Long.toString(cumul.getNbShebang()));
+        sortie.write(",\"nbFonctions\":");
+        sortie.write(Long.toString(cumul.getNbFonctionTotal()));
+        sortie.write(",\"nbFonctionsPydoc\":");
+        sortie.write(Long.toString(cumul.getNbStatPydoc()));
+        sortie.write(",\"nbFonctionsAnnotees\":");
+        sortie.write(Long.toString(cumul.getNbStatType()));
+        sortie.write("}\n");
+    }
+
+    /**
+     * Ecrit les statistiques de chaque dossier de l'arborescence (option --stat-tree), un objet par dossier dans
+     * l'ordre de l'arbre.
+     *
+     * @param arbre Les statistiques par dossier du parcours.
+     * @throws IOException Si une exception d'entree/sortie se produit.
+     */
+    public void dossiers(StatistiqueArborescence arbre) throws IOException {
+        for (StatistiqueArborescence.Dossier dossier : arbre.getDossiers()) {
+            CumulStatistique cumul = dossier.getCumul();
+            sortie.write("{\"type\":\"dossier\",\"chemin\":");
+            ecrireTexte(dossier.getChemin());
+            sortie.write(",\"profondeur\":");
+            sortie.write(Integer.toString(dossier.getProfondeur()));
+            sortie.write(",\"nbFichiers\":");
+            sortie.write(Long.toString(cumul.getNbTotalFichiers()));
+            sortie.write(",\"nbShebang\":");
+            sortie.write(Long.toString(cumul.getNbShebang()));
+            sortie.write(",\"nbFonctions\":");
+            sortie.write(Long.toString(cumul.getNbFonctionTotal()));
+            sortie.write(",\"nbFonctionsPydoc\":");
+            sortie.write(Long.toString(cumul.getNbStatPydoc()));
+            sortie.write(",\"nbFonctionsAnnotees\":");
+            sortie.write(Long.toString(cumul.getNbStatType()));
+            sortie.write("}\n");
+        }
+    }
+
+    /**
+     * Ecrit les mesures d'un parcours (option --metrics) sous la forme d'un dernier objet ; les durees sont en
+     * nanosecondes.
+     *
+     * @param mesures Les mesures du parcours.
+     * @throws IOException Si une exception d'entree/sortie se produit.
+     */
+    public void mesures(Mesures mesures) throws IOException {
+        sortie.write("{\"type\":\"mesures\",\"duree\":");
+        sortie.write(Long.toString(mesures.getDuree()));
+        sortie.write(",\"cpuProcessus\":");
+        sortie.write(Long.toString(mesures.getCpuProcessus()));
+        sortie.write(",\"cpuAnalyses\":");
+        sortie.write(Long.toString(mesures.getCpuAnalyses()));
+        sortie.write(",\"nbFichiers\":");
+        sortie.write(Long.toString(mesures.getNbFichiers()));
+        sortie.write(",\"nbFichiersCache\":");
+        sortie.write(Long.toString(mesures.getNbFichiersCache()));
+        sortie.write(",\"nbFichiersDoublons\":");
+        sortie.write(Long.toString(mesures.getNbFichiersDoublons()));
+        sortie.write(",\"fichiersParSeconde\":");
+        sortie.write(Double.toString(mesures.getFichiersParSeconde()));
+        sortie.write(",\"octets\":");
+        sortie.write(Long.toString(mesures.getOctets()));
+        sortie.write(",\"lignes\":");
+        sortie.write(Long.toString(mesures.getLignes()));
+        sortie.write(",\"tempsRegles\":");
+        sortie.write(Long.toString(mesures.getTempsRegles()));
+        sortie.write(",\"tempsFonctions\":");
+        sortie.write(Long.toString(mesures.getTempsFonctions()));
+        sortie.write(",\"tempsLecture\":");
+        sortie.write(Long.toString(mesures.getTempsLecture()));
+        sortie.write(",\"plusLents\":[");
+        boolean premier = true;
+        for (Mesures.FichierLent lent : mesures.getPlusLents()) {
+            sortie.write(premier ? "{\"chemin\":" : ",{\"chemin\":");
+            premier = false;
+            ecrireTexte(lent.getChemin());
+            sortie.write(",\"duree\":");
+            sortie.write(Long.toString(lent.getDuree()));
+            sortie.write('}');
+        }
+        sortie.write("]}\n");
+    }
+
+    @Override
+    public void flush() throws IOException {
+        sortie.flush();
+    }
+
+    private void ecrireTexteFacultatif(String texte) throws IOException {
+        if (texte == null) {
+            sortie.write("null");
+        } else {
+            ecrireTexte(texte);
+        }
+    }
+
+    // Écrit une chaîne JSON ; les caractères sans échappement sont écrits par plages
+    private void ecrireTexte(String texte) throws IOException {
+        sortie.write('"');
+        int debut = 0;
+        for (int i = 0; i < texte.length(); i++) {
+            char c = texte.charAt(i);
+            if (c >= 0x20 && c != '"' && c != '\\') {
+                continue;
+            }
+            sortie.write(texte, debut, i - debut);
+            debut = i + 1;
+            switch (c) {
+                case '"':
+                    sortie.write("\\\"");
+                    break;
+                case '\\':
+                    sortie.write("\\\\");
+                    break;
+                case '\n':
+                    sortie.write("\\n");
+                    break;
+                case '\r':
+                    sortie.write("\\r");
+                    break;
+                case '\t':
+                    sortie.write("\\t");
+                    break;
+                default:
+                    sortie.write("\\u00");
+                    sortie.write(HEXADECIMAL[c >> 4]);
+                    sortie.write(HEXADECIMAL[c & 0xF]);
+                    break;
+            }
+        }
+        sortie.write(texte, debut, texte.length() - debut);
+        sortie.write('"');
+    }
+}
@@ -0,0 +1,33 @@
+package outil;
+
+import java.io.File;
+import java.io.Flushable;
+import java.io.IOException;
+
+/**
+ * L'interface SortieRapport recoit les resultats d'un parcours d'arborescence au fur et a mesure qu'ils sont
+ * disponibles, dans l'ordre du parcours. Chaque implementation choisit le format ecrit ; la memoire utilisee ne
+ * depend donc pas de la taille de l'arborescence.
+ *
+ *
+ * @author CHEBALLAH Jawed
+ * @author FWALA Yvon
+ */
+public interface SortieRapport extends Flushable {
+
+    /**
+     * Ecrit le resultat de l'analyse d'un fichier Python.
+     *
+     * @param resultat Le resultat du fichier.
+     * @throws IOException Si une exception d'entree/sortie se produit.
+     */
+    void fichier(ResultatFichier resultat) throws IOException;
+
+    /**
+     * Signale un dossier dont l'arborescence ne contient aucun fichier Python.
+     *
+     * @param dossier Le dossier concerne.
+     * @throws IOException Si une exception d'entree/sortie se produit.
+     */
+    void dossierSansPython(File dossier) throws IOException;
+}
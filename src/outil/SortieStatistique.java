@@ -0,0 +1,50 @@
+package outil;
+
+import java.io.File;
+import java.io.IOException;
+
+/**
+ * La classe SortieStatistique transmet les resultats d'un parcours a une autre SortieRapport tout en les
+ * cumulant dans un CumulStatistique. Les statistiques portent ainsi sur exactement les memes fichiers que le
+ * rapport, sans aucune lecture supplementaire.
+ *
+ *
+ * @author CHEBALLAH Jawed
+ * @author FWALA Yvon
+ */
+public class SortieStatistique implements SortieRapport {
+    private final SortieRapport suivante;
+    private final CumulStatistique cumul = new CumulStatistique();
+
+    /**
+     * Constructeur de la classe SortieStatistique.
+     *
+     * @param suivante La sortie qui recoit les resultats apres leur prise en compte.
+     */
+    public SortieStatistique(SortieRapport suivante) {
+        this.suivante = suivante;
+    }
+
+    /**
+     * @return Le cumul des resultats recus jusqu'ici.
+     */
+    public CumulStatistique getCumul() {
+        return cumul;
+    }
+
+    @Override
+    public void fichier(ResultatFichier resultat) throws IOException {
+        cumul.ajouter(resultat);
+        suivante.fichier(resultat);
+    }
+
+    @Override
+    public void dossierSansPython(File dossier) throws IOException {
+        suivante.dossierSansPython(dossier);
+    }
+
+    @Override
+    public void flush() throws IOException {
+        suivante.flush();
+    }
+}
@@ -0,0 +1,42 @@
+package outil;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.Writer;
+
+/**
+ * La classe SortieTexte ecrit le rapport d'un parcours au format texte de l'option -d, fichier par fichier,
+ * dans un flux de sortie.
+ *
+ *
+ * @author CHEBALLAH Jawed
+ * @author FWALA Yvon
+ */
+public class SortieTexte implements SortieRapport {
+    private final Writer sortie;
+
+    /**
+     * Constructeur de la classe SortieTexte.
+     *
+     * @param sortie Le flux dans lequel ecrire le rapport, de preference tamponne.
+     */
+    public SortieTexte(Writer sortie) {
+        this.sortie = sortie;
+    }
+
+    @Override
+    public void fichier(ResultatFichier resultat) throws IOException {
+        resultat.ecrireRapport(sortie);
+        sortie.write("\n");
+    }
+
+    @Override
+    public void dossierSansPython(File dossier) throws IOException {
+        sortie.write("Aucun fichier Python trouvé dans le dossier '" + dossier.getAbsolutePath() + "'.\n");
+    }
+
+    @Override
+    public void flush() throws IOException {
+        sortie.flush();
+    }
+}
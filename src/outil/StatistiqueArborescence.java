@@ -0,0 +1,224 @@
+package outil;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * La classe StatistiqueArborescence transmet les resultats d'un parcours a une autre SortieRapport tout en les
+ * cumulant dossier par dossier. Chaque fichier n'est compte que dans son propre dossier ; a la fin du parcours, les
+ * cumuls partiels sont fusionnes des feuilles vers la racine, de sorte que chaque dossier porte les statistiques de
+ * toute son arborescence. Le cout est celui d'un seul parcours, quel que soit le nombre de dossiers.
+ *
+ * <p>Les couvertures sont calculees par fonction (fonctions documentees ou annotees sur le nombre de fonctions)
+ * et par fichier pour le shebang.
+ *
+ *
+ * @author CHEBALLAH Jawed
+ * @author FWALA Yvon
+ */
+public class StatistiqueArborescence implements SortieRapport {
+    private final SortieRapport suivante;
+    private final Dossier racine;
+    private final Map<Path, Dossier> dossiers = new HashMap<>();
+    // Dossier parent tel qu'écrit dans le chemin des résultats : évite de normaliser le chemin de chaque fichier
+    private final Map<String, Dossier> parParent = new HashMap<>();
+    private boolean cumule = false;
+
+    /**
+     * Constructeur de la classe StatistiqueArborescence.
+     *
+     * @param racine   Le dossier parcouru, ou l'archive analysee.
+     * @param suivante La sortie qui recoit les resultats apres leur prise en compte.
+     */
+    public StatistiqueArborescence(File racine, SortieRapport suivante) {
+        this.suivante = suivante;
+        // Les entrées d'une archive ont pour chemin "archive!/entrée"
+        Path chemin = racine.isFile() ? Paths.get(racine.getAbsolutePath() + "!") : racine.toPath().toAbsolutePath();
+        this.racine = new Dossier(chemin.normalize(), null);
+        dossiers.put(this.racine.chemin, this.racine);
+    }
+
+    @Override
+    public void fichier(ResultatFichier resultat) throws IOException {
+        String parent = new File(resultat.getChemin()).getParent();
+        Dossier dossier = parParent.get(parent);
+        if (dossier == null) {
+            dossier = parent == null ? racine : dossier(Paths.get(parent).toAbsolutePath().normalize());
+            parParent.put(parent, dossier);
+        }
+        dossier.propre.ajouter(resultat);
+        cumule = false;
+        suivante.fichier(resultat);
+    }
+
+    @Override
+    public void dossierSansPython(File dossier) throws IOException {
+        suivante.dossierSansPython(dossier);
+    }
+
+    @Override
+    public void flush() throws IOException {
+        suivante.flush();
+    }
+
+    // Crée le dossier et ses ancêtres jusqu'à la racine ; un chemin hors de la racine est compté dans la racine
+    private Dossier dossier(Path chemin) {
+        Dossier dossier = dossiers.get(chemin);
+        if (dossier != null) {
+            return dossier;
+        }
+        if (!chemin.startsWith(racine.chemin) || chemin.getParent() == null) {
+            return racine;
+        }
+        dossier = new Dossier(chemin, dossier(chemin.getParent()));
+        dossiers.put(chemin, dossier);
+        return dossier;
+    }
+
+    /**
+     * @return Le dossier racine, avec les statistiques de toute l'arborescence.
+     */
+    public Dossier getRacine() {
+        if (!cumule) {
+            racine.cumuler();
+            cumule = true;
+        }
+        return racine;
+    }
+
+    /**
+     * @return Tous les dossiers qui contiennent des fichiers Python, dans l'ordre de l'arbre (un dossier avant ses
+     * sous-dossiers, les sous-dossiers par ordre alphabetique).
+     */
+    public List<Dossier> getDossiers() {
+        List<Dossier> liste = new ArrayList<>(dossiers.size());
+        getRacine().lister(liste);
+        return liste;
+    }
+
+    /**
+     * Donne les dossiers les moins bien couverts, racine exclue : la moyenne des couvertures du shebang, des
+     * commentaires pydoc et des annotations de type la plus basse d'abord, le plus grand nombre de fonctions en cas
+     * d'egalite.
+     *
+     * @param nombre Le nombre de dossiers voulus.
+     * @return Les dossiers, du moins bien couvert au mieux couvert.
+     */
+    public List<Dossier> getMoinsCouverts(int nombre) {
+        List<Dossier> liste = getDossiers();
+        liste.remove(racine);
+        liste.sort(Comparator.comparingDouble(Dossier::getScore)
+                .thenComparing(Comparator.comparingLong((Dossier d) -> d.total.getNbFonctionTotal()).reversed())
+                .thenComparing(d -> d.chemin));
+        return liste.subList(0, Math.min(nombre, liste.size()));
+    }
+
+    /**
+     * Produit l'arbre des dossiers avec leurs statistiques, un dossier par ligne, indente selon sa profondeur.
+     *
+     * @return Le rapport, ligne par ligne.
+     */
+    public String rapportArbre() {
+        StringBuilder rapport = new StringBuilder("Statistiques par dossier :\n");
+        for (Dossier dossier : getDossiers()) {
+            rapport.append("  ".repeat(dossier.profondeur));
+            rapport.append(dossier == racine ? dossier.chemin.toString() : dossier.chemin.getFileName() + "/");
+            dossier.ecrireStatistiques(rapport);
+        }
+        return rapport.toString();
+    }
+
+    /**
+     * Produit la liste des dossiers les moins bien couverts.
+     *
+     * @param nombre Le nombre de dossiers voulus.
+     * @return Le rapport, ligne par ligne.
+     */
+    public String rapportMoinsCouverts(int nombre) {
+        List<Dossier> liste = getMoinsCouverts(nombre);
+        StringBuilder rapport = new StringBuilder("Les ").append(liste.size()).append(" dossiers les moins couverts de ")
+                .append(racine.chemin).append(" :\n");
+        for (Dossier dossier : liste) {
+            rapport.append("\t ").append(racine.chemin.relativize(dossier.chemin)).append('/');
+            dossier.ecrireStatistiques(rapport);
+        }
+        return rapport.toString();
+    }
+
+    /**
+     * Un dossier de l'arborescence et ses statistiques.
+     */
+    public static class Dossier {
+        private final Path chemin;
+        private final int profondeur;
+        private final Map<Path, Dossier> enfants = new TreeMap<>();
+        private final CumulStatistique propre = new CumulStatistique();
+        private final CumulStatistique total = new CumulStatistique();
+
+        private Dossier(Path chemin, Dossier parent) {
+            this.chemin = chemin;
+            this.profondeur = parent == null ? 0 : parent.profondeur + 1;
+            if (parent != null) {
+                parent.enfants.put(chemin, this);
+            }
+        }
+
+        // Fusion des cumuls partiels, des feuilles vers la racine
+        private void cumuler() {
+            total.vider();
+            total.fusionner(propre);
+            for (Dossier enfant : enfants.values()) {
+                enfant.cumuler();
+                total.fusionner(enfant.total);
+            }
+        }
+
+        private void lister(List<Dossier> liste) {
+            liste.add(this);
+            for (Dossier enfant : enfants.values()) {
+                enfant.lister(liste);
+            }
+        }
+
+        private double getScore() {
+            return (total.getCouvertureShebang() + total.getCouverturePydoc() + total.getCouvertureType()) / 3;
+        }
+
+        private void ecrireStatistiques(StringBuilder rapport) {
+            rapport.append(" : ").append(total.getNbTotalFichiers()).append(" fichiers, ")
+                    .append(total.getNbFonctionTotal()).append(" fonctions ; shebang ")
+                    .append(String.format("%.1f", total.getCouvertureShebang())).append(" %, pydoc ")
+                    .append(String.format("%.1f", total.getCouverturePydoc())).append(" %, annotations de type ")
+                    .append(String.format("%.1f", total.getCouvertureType())).append(" %\n");
+        }
+
+        /**
+         * @return Le chemin absolu du dossier.
+         */
+        public String getChemin() {
+            return chemin.toString();
+        }
+
+        /**
+         * @return La profondeur du dossier sous la racine (0 pour la racine).
+         */
+        public int getProfondeur() {
+            return profondeur;
+        }
+
+        /**
+         * @return Les statistiques des fichiers de tout le sous-arbre du dossier.
+         */
+        public CumulStatistique getCumul() {
+            return total;
+        }
+    }
+}
@@ -0,0 +1,243 @@
+package outil;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.file.FileSystems;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * La classe SurveillanceArborescence analyse une arborescence une premiere fois, puis la surveille avec un
+ * WatchService. Les fichiers Python crees ou modifies sont regroupes par lots (les evenements proches sont
+ * fusionnes) et seuls ces fichiers sont reanalyses ; apres chaque lot, le rapport des fichiers concernes et les
+ * statistiques de toute l'arborescence, tenues a jour sans relecture, sont ecrits.
+ *
+ *
+ * @author CHEBALLAH Jawed
+ * @author FWALA Yvon
+ */
+public class SurveillanceArborescence {
+    /** Delai sans nouvel evenement apres lequel un lot de modifications est traite. */
+    private static final long DELAI_REGROUPEMENT_MS = 200;
+
+    private final File racine;
+    private final ParcoursArborescence parcours;
+    private final MoteurAnalyse moteur;
+    private final CacheAnalyse cache;
+    private final Map<Path, ResultatFichier> resultats = new HashMap<>();
+    private final CumulStatistique cumul = new CumulStatistique();
+    private final Map<WatchKey, Path> dossiers = new HashMap<>();
+
+    /**
+     * Constructeur de la classe SurveillanceArborescence.
+     *
+     * @param racine   Le dossier a surveiller.
+     * @param parcours Le parcours utilise pour l'analyse initiale.
+     * @param moteur   Le moteur utilise pour reanalyser les fichiers modifies.
+     * @param cache    Le cache a enregistrer apres chaque lot, ou null.
+     */
+    public SurveillanceArborescence(File racine, ParcoursArborescence parcours, MoteurAnalyse moteur, CacheAnalyse cache) {
+        this.racine = racine.getAbsoluteFile();
+        this.parcours = parcours;
+        this.moteur = moteur;
+        this.cache = cache;
+    }
+
+    /**
+     * Analyse toute l'arborescence puis ecrit le rapport de chaque lot de modifications, jusqu'a l'interruption
+     * du thread.
+     *
+     * @param sortie Le flux dans lequel ecrire les rapports.
+     * @throws IOException          Si la surveillance ou l'ecriture echoue.
+     * @throws InterruptedException Si le thread est interrompu pendant l'attente d'evenements.
+     */
+    public void surveiller(Writer sortie) throws IOException, InterruptedException {
+        try (WatchService service = FileSystems.getDefault().newWatchService()) {
+            // Les dossiers sont enregistres avant l'analyse initiale pour ne manquer aucune modification
+            enregistrerArborescence(service, racine.toPath());
+            analyserTout(sortie);
+
+            while (true) {
+                Set<Path> modifies = new LinkedHashSet<>();
+                Set<Path> supprimes = new LinkedHashSet<>();
+                boolean debordement = collecter(service.take(), service, modifies, supprimes);
+
+                // Regroupe les évènements qui arrivent tant que les fichiers sont en cours d'écriture
+                WatchKey suivante;
+                while ((suivante = service.poll(DELAI_REGROUPEMENT_MS, TimeUnit.MILLISECONDS)) != null) {
+                    debordement |= collecter(suivante, service, modifies, supprimes);
+                }
+
+                if (debordement) {
+                    sortie.write("\t Trop de modifications : nouvelle analyse complète.\n");
+                    analyserTout(sortie);
+                } else {
+                    traiterLot(sortie, modifies, supprimes);
+                }
+                if (cache != null) {
+                    cache.enregistrer();
+                }
+            }
+        }
+    }
+
+    private void analyserTout(Writer sortie) throws IOException {
+        resultats.clear();
+        cumul.vider();
+        sortie.write("\t Resultat de l'opération :\n");
+        parcours.parcourir(racine, new SortieMemorisee(new SortieTexte(sortie)));
+        ecrireStatistiques(sortie);
+    }
+
+    private void traiterLot(Writer sortie, Set<Path> modifies, Set<Path> supprimes) throws IOException {
+        sortie.write("\t Modifications détectées :\n");
+
+        for (Path supprime : supprimes) {
+            // Un dossier supprimé retire tous les fichiers qu'il contenait
+            Iterator<Map.Entry<Path, ResultatFichier>> it = resultats.entrySet().iterator();
+            while (it.hasNext()) {
+                Map.Entry<Path, ResultatFichier> entree = it.next();
+                if (entree.getKey().startsWith(supprime)) {
+                    cumul.retirer(entree.getValue());
+                    it.remove();
+                    sortie.write("Fichier supprimé : " + entree.getKey() + "\n");
+                }
+            }
+        }
+
+        for (Path modifie : modifies) {
+            if (!Files.isRegularFile(modifie)) {
+                continue;
+            }
+            ResultatFichier resultat = moteur.analyser(modifie.toFile());
+            ResultatFichier ancien = resultats.put(modifie, resultat);
+            if (ancien != null) {
+                cumul.retirer(ancien);
+            }
+            cumul.ajouter(resultat);
+            resultat.ecrireRapport(sortie);
+            sortie.write("\n");
+        }
+
+        ecrireStatistiques(sortie);
+    }
+
+    private void ecrireStatistiques(Writer sortie) throws IOException {
+        sortie.write("\n" + cumul.rapport(racine) + "\n");
+        sortie.flush();
+    }
+
+    /**
+     * Ajoute les evenements d'un dossier au lot en cours.
+     *
+     * @return true si des evenements ont ete perdus.
+     */
+    private boolean collecter(WatchKey cle, WatchService service, Set<Path> modifies, Set<Path> supprimes) throws IOException {
+        Path dossier = dossiers.get(cle);
+        boolean debordement = false;
+
+        for (WatchEvent<?> evenement : cle.pollEvents()) {
+            if (evenement.kind() == StandardWatchEventKinds.OVERFLOW) {
+                debordement = true;
+                continue;
+            }
+            Path chemin = dossier.resolve((Path) evenement.context());
+
+            if (evenement.kind() == StandardWatchEventKinds.ENTRY_DELETE) {
+                modifies.remove(chemin);
+                supprimes.add(chemin);
+            } else if (Files.isDirectory(chemin)) {
+                // Nouveau dossier : il est surveillé et ses fichiers déjà présents sont analysés, sauf s'il est ignoré
+                if (evenement.kind() == StandardWatchEventKinds.ENTRY_CREATE && !parcours.getFiltre().estIgnore(racine.toPath(), chemin, true)) {
+                    modifies.addAll(enregistrerArborescence(service, chemin));
+                }
+            } else if (chemin.getFileName().toString().endsWith(".py") && !parcours.getFiltre().estIgnore(racine.toPath(), chemin, false)) {
+                supprimes.remove(chemin);
+                modifies.add(chemin);
+            }
+        }
+
+        if (!cle.reset()) {
+            dossiers.remove(cle);
+        }
+        return debordement;
+    }
+
+    /**
+     * Surveille un dossier et tous ses sous-dossiers.
+     *
+     * @return Les fichiers Python deja presents dans l'arborescence enregistree.
+     */
+    private List<Path> enregistrerArborescence(WatchService service, Path debut) throws IOException {
+        List<Path> fichiers = new ArrayList<>();
+
+        // Les dossiers ignorés (environnements virtuels, .git...) ne sont pas surveillés
+        parcours.getFiltre().parcourir(debut, new SimpleFileVisitor<Path>() {
+            @Override
+            public FileVisitResult preVisitDirectory(Path dossier, BasicFileAttributes attributs) throws IOException {
+                WatchKey cle = dossier.register(service, StandardWatchEventKinds.ENTRY_CREATE,
+                        StandardWatchEventKinds.ENTRY_MODIFY, StandardWatchEventKinds.ENTRY_DELETE);
+                dossiers.put(cle, dossier);
+                return FileVisitResult.CONTINUE;
+            }
+
+            @Override
+            public FileVisitResult visitFile(Path fichier, BasicFileAttributes attributs) {
+                if (fichier.getFileName().toString().endsWith(".py")) {
+                    fichiers.add(fichier);
+                }
+                return FileVisitResult.CONTINUE;
+            }
+
+            @Override
+            public FileVisitResult visitFileFailed(Path fichier, IOException e) {
+                return FileVisitResult.CONTINUE;
+            }
+        });
+        return fichiers;
+    }
+
+    /**
+     * Sortie qui memorise chaque resultat de l'analyse initiale pour tenir les statistiques a jour.
+     */
+    private class SortieMemorisee implements SortieRapport {
+        private final SortieRapport suivante;
+
+        SortieMemorisee(SortieRapport suivante) {
+            this.suivante = suivante;
+        }
+
+        @Override
+        public void fichier(ResultatFichier resultat) throws IOException {
+            resultats.put(new File(resultat.getChemin()).toPath(), resultat);
+            cumul.ajouter(resultat);
+            suivante.fichier(resultat);
+        }
+
+        @Override
+        public void dossierSansPython(File dossier) throws IOException {
+            suivante.dossierSansPython(dossier);
+        }
+
+        @Override
+        public void flush() throws IOException {
+            suivante.flush();
+        }
+    }
+}